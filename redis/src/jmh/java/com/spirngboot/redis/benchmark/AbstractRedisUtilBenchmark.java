@@ -0,0 +1,100 @@
+package com.spirngboot.redis.benchmark;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.spirngboot.redis.domain.RefreshToken;
+import com.spirngboot.redis.dto.TokenBlacklist;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+import com.spirngboot.redis.utils.RedisUtil;
+
+/**
+ * RedisUtil end-to-end 벤치마크 (직렬화 + 네트워크 왕복 + redis 처리)
+ *
+ * 같은 벤치마크를 스레드 수만 바꿔서 돌리기 위해 메서드는 여기 두고, 스레드 수는 하위 클래스의 @Threads로 정한다.
+ * - RedisUtilBenchmark : 단일 스레드 (명령 하나의 지연)
+ * - RedisUtilContendedBenchmark : 여러 스레드가 같은 키 / 같은 공유 커넥션을 두고 경쟁
+ *
+ * 실행 : redis를 띄운 상태에서 ./gradlew jmh -PjmhIncludes=RedisUtil
+ *       또는 -Dbenchmark.redis.server=<redis-server 경로> 로 전용 프로세스를 띄워서 실행 (RedisBenchmarkSupport 참고)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class AbstractRedisUtilBenchmark {
+    private static final String MEMBER_ID = "1234567";
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9." + "x".repeat(400) + ".signature";
+    private static final String BLACKLISTED_TOKEN = TOKEN + ".blacklisted";
+    private static final String ROLE = "ADMIN";
+
+    private RedisBenchmarkSupport support;
+    private RedisUtil redisUtil;
+    private TokenBlacklist blacklist;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        support = new RedisBenchmarkSupport();
+        redisUtil = support.redisUtil();
+        RedisKeyGenerator keyGenerator = support.keyGenerator();
+
+        support.redisTemplate().opsForValue().set(keyGenerator.refreshToken(MEMBER_ID), RefreshToken.builder()
+            .memberId(MEMBER_ID)
+            .refreshToken(TOKEN)
+            .expiration(Duration.ofDays(14).toMillis())
+            .build());
+        blacklist = TokenBlacklist.builder()
+            .token(BLACKLISTED_TOKEN)
+            .expirationTime(Duration.ofHours(1).toMillis())
+            .blacklistedAt(LocalDateTime.now())
+            .build();
+        redisUtil.setBlacklistToken(BLACKLISTED_TOKEN, blacklist);
+        redisUtil.addUserToRole(ROLE, MEMBER_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        support.close();
+    }
+
+    @Benchmark
+    public RefreshToken getRefreshToken() {
+        return redisUtil.getRefreshToken(MEMBER_ID);
+    }
+
+    @Benchmark
+    public boolean validateRefreshToken() {
+        return redisUtil.validateRefreshToken(MEMBER_ID, TOKEN);
+    }
+
+    // 대부분의 요청이 타는 경로 (블랙리스트 아님)
+    @Benchmark
+    public boolean isBlacklistTokenMiss() {
+        return redisUtil.isBlacklistToken(TOKEN);
+    }
+
+    @Benchmark
+    public boolean isBlacklistTokenHit() {
+        return redisUtil.isBlacklistToken(BLACKLISTED_TOKEN);
+    }
+
+    @Benchmark
+    public void setBlacklistToken() {
+        redisUtil.setBlacklistToken(BLACKLISTED_TOKEN, blacklist);
+    }
+
+    @Benchmark
+    public boolean isUserInRole() {
+        return redisUtil.isUserInRole(ROLE, MEMBER_ID);
+    }
+}
@@ -0,0 +1,91 @@
+package com.spirngboot.redis.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.spirngboot.redis.utils.ReactiveRedisUtil;
+import com.spirngboot.redis.utils.RedisUtil;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 블랙리스트 검증 동시 처리량 비교 (RedisUtil vs ReactiveRedisUtil)
+ *
+ * 한 번의 호출에서 REQUESTS 건의 isBlacklistToken을 동시에 처리한다.
+ * - blocking : 요청 하나당 스레드 하나를 잡는 구조를 흉내내기 위해 threads 크기의 스레드 풀에서 처리
+ * - reactive : 스레드를 늘리지 않고 flatMap concurrency만큼 동시에 명령을 날림
+ *
+ * 실행 : redis를 띄운 상태에서 ./gradlew jmh -PjmhIncludes=BlockingVsReactiveBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BlockingVsReactiveBenchmark {
+    private static final int REQUESTS = 1000;
+
+    @Param({"16", "256"})
+    private int threads;
+
+    private RedisBenchmarkSupport support;
+    private RedisUtil redisUtil;
+    private ReactiveRedisUtil reactiveRedisUtil;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        support = new RedisBenchmarkSupport();
+        redisUtil = support.redisUtil();
+        reactiveRedisUtil = support.reactiveRedisUtil();
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        support.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int blocking() throws Exception {
+        List<Future<Boolean>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            String token = "benchmark-token-" + i;
+            futures.add(executor.submit(() -> redisUtil.isBlacklistToken(token)));
+        }
+
+        int blacklisted = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                blacklisted++;
+            }
+        }
+        return blacklisted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public Long reactive() {
+        return Flux.range(0, REQUESTS)
+            .flatMap(i -> reactiveRedisUtil.isBlacklistToken("benchmark-token-" + i), threads)
+            .filter(Boolean::booleanValue)
+            .count()
+            .block();
+    }
+}
@@ -0,0 +1,160 @@
+package com.spirngboot.redis.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.spirngboot.redis.audit.TokenAuditWriter;
+import com.spirngboot.redis.cache.BlacklistBloomFilter;
+import com.spirngboot.redis.cache.BlacklistNearCache;
+import com.spirngboot.redis.config.ObjectMapperConfig;
+import com.spirngboot.redis.listener.TokenRevocationStream;
+import com.spirngboot.redis.metrics.RedisOperationMetrics;
+import com.spirngboot.redis.serializer.CompactTokenRedisSerializer;
+import com.spirngboot.redis.serializer.RedisKeySerializer;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.ReactiveRedisUtil;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+import com.spirngboot.redis.utils.RedisKeyScanner;
+import com.spirngboot.redis.utils.RedisUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 벤치마크용 Redis 픽스처
+ *
+ * 스프링 컨텍스트 없이 RedisConfig와 같은 구성(직렬화기, 트랜잭션 / 읽기 전용 템플릿)을 직접 조립한다.
+ * 접속 대상은 -Dbenchmark.redis.host / -Dbenchmark.redis.port 로 바꿀 수 있다. (기본 localhost:6379)
+ * -Dbenchmark.redis.server=/usr/bin/redis-server 처럼 실행 파일을 주면 빈 포트에 전용 redis 프로세스를 띄워서 쓰고 close()에서 내린다.
+ * (저장 / AOF를 끄고 띄우므로 디스크 영향 없이 매번 빈 상태에서 시작한다)
+ */
+public class RedisBenchmarkSupport {
+    private final Process redisServer;
+    private final LettuceConnectionFactory connectionFactory;
+    private final AuthRedisProperties properties = new AuthRedisProperties();
+    private final RedisKeyGenerator keyGenerator = new RedisKeyGenerator(properties);
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, Object> readOnlyRedisTemplate;
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    public RedisBenchmarkSupport() {
+        String serverBinary = System.getProperty("benchmark.redis.server");
+        int port = serverBinary == null ? Integer.getInteger("benchmark.redis.port", 6379) : freePort();
+        redisServer = serverBinary == null ? null : startRedisServer(serverBinary, port);
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(
+            serverBinary == null ? System.getProperty("benchmark.redis.host", "localhost") : "localhost",
+            port
+        );
+        connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = redisTemplate(true);
+        readOnlyRedisTemplate = redisTemplate(false);
+        reactiveRedisTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext
+            .<String, Object>newSerializationContext(RedisKeySerializer.INSTANCE)
+            .value(valueSerializer())
+            .hashKey(RedisKeySerializer.INSTANCE)
+            .hashValue(valueSerializer())
+            .build());
+    }
+
+    public RedisUtil redisUtil() {
+        return new RedisUtil(redisTemplate, readOnlyRedisTemplate, keyGenerator, nearCache(), bloomFilter(), properties,
+            new RedisOperationMetrics(properties, new SimpleMeterRegistry()),
+            new TokenAuditWriter(redisTemplate, keyGenerator, properties, new SimpleMeterRegistry()),
+            new TokenRevocationStream(redisTemplate, keyGenerator, nearCache(), bloomFilter(), properties, new SimpleMeterRegistry()));
+    }
+
+    public ReactiveRedisUtil reactiveRedisUtil() {
+        return new ReactiveRedisUtil(reactiveRedisTemplate, keyGenerator, nearCache(), bloomFilter(), properties,
+            new TokenAuditWriter(redisTemplate, keyGenerator, properties, new SimpleMeterRegistry()));
+    }
+
+    public RedisKeyGenerator keyGenerator() {
+        return keyGenerator;
+    }
+
+    public RedisTemplate<String, Object> redisTemplate() {
+        return redisTemplate;
+    }
+
+    public void close() {
+        connectionFactory.destroy();
+        if (redisServer != null) {
+            redisServer.destroy();
+        }
+    }
+
+    private static Process startRedisServer(String binary, int port) {
+        try {
+            Process process = new ProcessBuilder(binary, "--port", String.valueOf(port), "--save", "", "--appendonly", "no")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            waitForPort(port);
+            return process;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start redis server: " + binary, e);
+        }
+    }
+
+    private static void waitForPort(int port) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            try (Socket ignored = new java.net.Socket("localhost", port)) {
+                return;
+            } catch (IOException e) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(interrupted);
+                }
+            }
+        }
+        throw new IllegalStateException("Redis server did not start on port " + port);
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // near-cache / Bloom filter는 꺼둔 상태(기본값)로 만들어서 매번 redis까지 다녀오도록 한다.
+    private BlacklistNearCache nearCache() {
+        return new BlacklistNearCache(properties, new SimpleMeterRegistry());
+    }
+
+    private BlacklistBloomFilter bloomFilter() {
+        return new BlacklistBloomFilter(properties, new RedisKeyScanner(readOnlyRedisTemplate), keyGenerator, new SimpleMeterRegistry());
+    }
+
+    private RedisTemplate<String, Object> redisTemplate(boolean transactional) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisKeySerializer.INSTANCE);
+        template.setValueSerializer(valueSerializer());
+        template.setHashKeySerializer(RedisKeySerializer.INSTANCE);
+        template.setHashValueSerializer(valueSerializer());
+        template.setEnableTransactionSupport(transactional);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private RedisSerializer<Object> valueSerializer() {
+        return new CompactTokenRedisSerializer(new GenericJackson2JsonRedisSerializer(new ObjectMapperConfig().objectMapper()), false);
+    }
+}
@@ -0,0 +1,77 @@
+package com.spirngboot.redis.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.spirngboot.redis.serializer.RedisKeySerializer;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisConstants;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
+/**
+ * 키 생성 + 직렬화까지 (redis로 넘어가는 byte[]가 나올 때까지) 비용 비교
+ *
+ * - stringJoin : 예전 방식 (String.join -> StringRedisSerializer)
+ * - prefixed : 미리 만든 접두사 concat -> RedisKeySerializer (템플릿 경로)
+ * - bytes : 미리 인코딩한 접두사 바이트 뒤에 바로 쓰기 (pipeline 경로)
+ *
+ * 할당량은 gc 프로파일러로 본다. (gc.alloc.rate.norm = 호출 한 번당 할당 바이트)
+ * 실행 : ./gradlew jmh -PjmhIncludes=RedisKeyEncodingBenchmark -PjmhProfilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RedisKeyEncodingBenchmark {
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9." + "x".repeat(400) + ".signature";
+    private static final RedisSerializer<String> STRING_SERIALIZER = RedisSerializer.string();
+
+    @Param({"1234567", "회원-1234567"})
+    private String memberId;
+
+    @Param({"TOKEN", "DIGEST"})
+    private AuthRedisProperties.BlacklistStorage.Layout blacklistLayout;
+
+    private RedisKeyGenerator keyGenerator;
+
+    @Setup
+    public void setUp() {
+        AuthRedisProperties properties = new AuthRedisProperties();
+        properties.getBlacklistStorage().setLayout(blacklistLayout);
+        keyGenerator = new RedisKeyGenerator(properties);
+    }
+
+    @Benchmark
+    public byte[] refreshTokenStringJoin() {
+        return STRING_SERIALIZER.serialize(
+            String.join(RedisConstants.DELIMITER, RedisConstants.SERVICE_ID, RedisConstants.Prefix.REFRESH_TOKEN, memberId));
+    }
+
+    @Benchmark
+    public byte[] refreshTokenPrefixed() {
+        return RedisKeySerializer.INSTANCE.serialize(keyGenerator.refreshToken(memberId));
+    }
+
+    @Benchmark
+    public byte[] refreshTokenBytes() {
+        return keyGenerator.refreshTokenBytes(memberId);
+    }
+
+    @Benchmark
+    public byte[] blacklistPrefixed() {
+        return RedisKeySerializer.INSTANCE.serialize(keyGenerator.blacklist(TOKEN));
+    }
+
+    @Benchmark
+    public byte[] blacklistBytes() {
+        return keyGenerator.blacklistBytes(TOKEN);
+    }
+}
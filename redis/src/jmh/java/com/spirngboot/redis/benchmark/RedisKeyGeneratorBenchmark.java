@@ -0,0 +1,77 @@
+package com.spirngboot.redis.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.spirngboot.redis.dto.TokenType;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisConstants;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
+/**
+ * 키 생성 비용 (요청마다 여러 번 호출되는 hot path)
+ *
+ * blacklistLayout으로 블랙리스트 키를 토큰 그대로 쓰는 경우와 SHA-256 digest를 쓰는 경우를 비교한다.
+ * 실행 : ./gradlew jmh -PjmhIncludes=RedisKeyGeneratorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RedisKeyGeneratorBenchmark {
+    private static final String MEMBER_ID = "1234567";
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9." + "x".repeat(400) + ".signature";
+
+    @Param({"TOKEN", "DIGEST"})
+    private AuthRedisProperties.BlacklistStorage.Layout blacklistLayout;
+
+    @Param({"false", "true"})
+    private boolean hashTagKeys;
+
+    private RedisKeyGenerator keyGenerator;
+
+    @Setup
+    public void setUp() {
+        AuthRedisProperties properties = new AuthRedisProperties();
+        properties.getBlacklistStorage().setLayout(blacklistLayout);
+        properties.getTopology().setHashTagKeys(hashTagKeys);
+        keyGenerator = new RedisKeyGenerator(properties);
+    }
+
+    @Benchmark
+    public String accessToken() {
+        return keyGenerator.accessToken(MEMBER_ID);
+    }
+
+    @Benchmark
+    public String refreshToken() {
+        return keyGenerator.refreshToken(MEMBER_ID);
+    }
+
+    @Benchmark
+    public String blacklist() {
+        return keyGenerator.blacklist(TOKEN);
+    }
+
+    @Benchmark
+    public String role() {
+        return keyGenerator.role("ADMIN");
+    }
+
+    @Benchmark
+    public String tokenExpiryMember() {
+        return keyGenerator.tokenExpiryMember(TokenType.ACCESS, TOKEN);
+    }
+
+    @Benchmark
+    public String typeOf() {
+        return keyGenerator.typeOf(RedisConstants.SERVICE_ID + RedisConstants.DELIMITER + RedisConstants.Prefix.ACCESS_TOKEN + ":42");
+    }
+}
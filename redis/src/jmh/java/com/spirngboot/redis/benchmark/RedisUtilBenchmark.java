@@ -0,0 +1,10 @@
+package com.spirngboot.redis.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * RedisUtil end-to-end, 단일 스레드 (AbstractRedisUtilBenchmark 참고)
+ */
+@Threads(1)
+public class RedisUtilBenchmark extends AbstractRedisUtilBenchmark {
+}
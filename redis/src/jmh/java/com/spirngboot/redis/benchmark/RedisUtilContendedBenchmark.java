@@ -0,0 +1,10 @@
+package com.spirngboot.redis.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * RedisUtil end-to-end, 16 스레드가 같은 키와 공유 커넥션을 두고 경쟁 (AbstractRedisUtilBenchmark 참고)
+ */
+@Threads(16)
+public class RedisUtilContendedBenchmark extends AbstractRedisUtilBenchmark {
+}
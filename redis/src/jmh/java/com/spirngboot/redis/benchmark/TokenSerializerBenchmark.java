@@ -0,0 +1,86 @@
+package com.spirngboot.redis.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.spirngboot.redis.config.ObjectMapperConfig;
+import com.spirngboot.redis.domain.RefreshToken;
+import com.spirngboot.redis.dto.TokenBlacklist;
+import com.spirngboot.redis.serializer.CompactTokenRedisSerializer;
+
+/**
+ * 값 직렬화 비교 (GenericJackson2JsonRedisSerializer 단독 vs CompactTokenRedisSerializer의 JSON / compact 쓰기)
+ *
+ * 실행 : ./gradlew jmh
+ * 직렬화된 값 크기는 Setup 단계에서 한번 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenSerializerBenchmark {
+    // 실제 JWT와 비슷한 길이의 토큰 문자열
+    private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9." + "x".repeat(400) + ".signature";
+
+    // jackson : GenericJackson2JsonRedisSerializer 그대로, json / compact : CompactTokenRedisSerializer로 감싼 경우
+    @Param({"jackson", "json", "compact"})
+    private String format;
+
+    private RedisSerializer<Object> serializer;
+    private RefreshToken refreshToken;
+    private TokenBlacklist blacklist;
+    private byte[] refreshTokenBytes;
+    private byte[] blacklistBytes;
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer(new ObjectMapperConfig().objectMapper());
+        serializer = "jackson".equals(format) ? json : new CompactTokenRedisSerializer(json, "compact".equals(format));
+
+        refreshToken = RefreshToken.builder()
+            .memberId("1234567")
+            .refreshToken(TOKEN)
+            .expiration(1209600000L)
+            .build();
+        blacklist = TokenBlacklist.builder()
+            .token(TOKEN)
+            .expirationTime(3600000L)
+            .blacklistedAt(LocalDateTime.now())
+            .build();
+
+        refreshTokenBytes = serializer.serialize(refreshToken);
+        blacklistBytes = serializer.serialize(blacklist);
+        System.out.printf("%n[%s] RefreshToken=%d bytes, TokenBlacklist=%d bytes%n",
+            format, refreshTokenBytes.length, blacklistBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeRefreshToken() {
+        return serializer.serialize(refreshToken);
+    }
+
+    @Benchmark
+    public Object deserializeRefreshToken() {
+        return serializer.deserialize(refreshTokenBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeTokenBlacklist() {
+        return serializer.serialize(blacklist);
+    }
+
+    @Benchmark
+    public Object deserializeTokenBlacklist() {
+        return serializer.deserialize(blacklistBytes);
+    }
+}
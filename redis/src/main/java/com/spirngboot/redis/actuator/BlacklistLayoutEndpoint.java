@@ -0,0 +1,36 @@
+package com.spirngboot.redis.actuator;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.dto.BlacklistMemoryReport;
+import com.spirngboot.redis.utils.BlacklistLayoutMigrator;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 블랙리스트 레이아웃 관리 엔드포인트 (/actuator/blacklistlayout)
+ *
+ * GET  : 레이아웃별 엔트리당 메모리 사용량 리포트
+ * POST : TOKEN -> DIGEST 마이그레이션 실행
+ */
+@Component
+@Endpoint(id = "blacklistlayout")
+@RequiredArgsConstructor
+public class BlacklistLayoutEndpoint {
+    private final BlacklistLayoutMigrator blacklistLayoutMigrator;
+
+    @ReadOperation
+    public BlacklistMemoryReport report() {
+        return blacklistLayoutMigrator.report();
+    }
+
+    @WriteOperation
+    public Map<String, Long> migrate() {
+        return Map.of("migrated", blacklistLayoutMigrator.migrate());
+    }
+}
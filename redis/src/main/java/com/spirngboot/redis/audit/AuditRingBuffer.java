@@ -0,0 +1,69 @@
+package com.spirngboot.redis.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 다중 생산자 / 단일 소비자 lock-free ring buffer
+ *
+ * 생산자(요청 스레드)는 tail을 CAS로 한 칸 선점한 뒤 그 칸에 값을 쓰기만 한다. 가득 차 있으면 기다리지 않고 바로 false.
+ * 소비자(flush 스레드 하나)는 head부터 순서대로 꺼내고 칸을 비운다. 선점만 되고 아직 안 써진 칸을 만나면 거기서 멈춘다.
+ * 크기는 2의 거듭제곱이라 인덱스 계산은 mask 연산이다.
+ */
+public class AuditRingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public AuditRingBuffer(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public boolean offer(E element) {
+        while (true) {
+            long current = tail.get();
+            if (current - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(current, current + 1)) {
+                slots.lazySet((int) (current & mask), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 최대 max 개를 꺼내서 consumer에 넘긴다. 소비자 스레드 하나에서만 호출해야 된다.
+     * @return 꺼낸 개수
+     */
+    public int drain(int max, Consumer<E> consumer) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            consumer.accept(element);
+            position++;
+            drained++;
+        }
+        // 칸을 비운 뒤에 head를 올려야 생산자가 비워진 칸만 다시 쓴다. (volatile 쓰기)
+        head = position;
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
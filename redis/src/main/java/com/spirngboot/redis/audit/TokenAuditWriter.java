@@ -0,0 +1,173 @@
+package com.spirngboot.redis.audit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.dto.TokenAuditEvent;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 토큰 lifecycle audit write-behind 버퍼
+ *
+ * 발급 / 재발급 / 블랙리스트 / 만료 이벤트를 요청 스레드에서 바로 쓰면 audit I/O 지연이 그대로 인증 응답 시간에 붙는다.
+ * 그래서 record는 lock-free ring buffer(AuditRingBuffer)에 넣기만 하고, flush 스레드 하나가 batch-size 만큼 꺼내서
+ * auth:audit:tokens Stream에 XADD(MAXLEN ~) pipeline 한 번으로 쓴다.
+ *
+ * 버퍼가 가득 차면 기다리지 않고 버리고 dropped 지표만 올린다. (메모리는 buffer-capacity로 고정)
+ * redis 쓰기가 실패한 batch도 다시 넣지 않고 failed로 집계한다. audit 때문에 버퍼가 계속 쌓이는 것보다 유실을 세는게 낫다.
+ *
+ * 참고 : JPA(data-jpa, BaseTimeEntity)도 있으니 audit 테이블에 바로 쓰는 방법도 있다. 그래도 Stream으로 쓰는 이유는
+ * - 인증 hot path가 이미 쓰고 있는 redis 커넥션 하나로 끝난다. 테이블로 쓰면 flush마다 DB 커넥션 / 트랜잭션이 필요하고
+ *   DB가 느려지면 flush가 밀려서 버퍼가 넘친다. (redis XADD pipeline은 batch 하나에 왕복 한 번)
+ * - 보관 기간은 MAXLEN ~ 로 잘리므로 따로 정리 작업이 필요 없다.
+ * 오래 보관해야 되면 다른 서비스가 consumer group으로 Stream을 가져가서 DB에 적재하면 된다.
+ */
+@Slf4j
+@Component
+public class TokenAuditWriter {
+    private static final String METRIC_PREFIX = "auth.audit.events";
+    private static final byte[] TYPE_FIELD = bytes("type");
+    private static final byte[] SUBJECT_FIELD = bytes("subject");
+    private static final byte[] OCCURRED_AT_FIELD = bytes("at");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final AuthRedisProperties.Audit settings;
+    private final byte[] streamKey;
+    private final AuditRingBuffer<TokenAuditEvent> buffer;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final Counter buffered;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    public TokenAuditWriter(
+        RedisTemplate<String, Object> redisTemplate,
+        RedisKeyGenerator keyGenerator,
+        AuthRedisProperties authRedisProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.settings = authRedisProperties.getAudit();
+        this.streamKey = bytes(keyGenerator.auditStream());
+        this.buffer = new AuditRingBuffer<>(settings.getBufferCapacity());
+
+        this.buffered = Counter.builder(METRIC_PREFIX).tag("result", "buffered").register(meterRegistry);
+        this.dropped = Counter.builder(METRIC_PREFIX).tag("result", "dropped")
+            .description("버퍼가 가득 차서 버려진 이벤트 수")
+            .register(meterRegistry);
+        this.written = Counter.builder(METRIC_PREFIX).tag("result", "written").register(meterRegistry);
+        this.failed = Counter.builder(METRIC_PREFIX).tag("result", "failed").register(meterRegistry);
+        this.flushTimer = Timer.builder(METRIC_PREFIX + ".flush").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".buffer", buffer, AuditRingBuffer::size).register(meterRegistry);
+
+        if (settings.isEnabled()) {
+            this.flusher = new Thread(this::flushLoop, "token-audit-flusher");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * 이벤트를 버퍼에 넣는다. 요청 스레드에서 호출되므로 절대 막히지 않는다.
+     * @return 버퍼에 들어갔으면 true, 비활성화 상태거나 버퍼가 가득 차서 버려졌으면 false
+     */
+    public boolean record(TokenAuditEvent.Type type, String subject) {
+        if (!settings.isEnabled()) {
+            return false;
+        }
+        if (buffer.offer(new TokenAuditEvent(type, subject, System.currentTimeMillis()))) {
+            buffered.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        if (flusher.isAlive()) {
+            log.warn("Token audit flusher did not terminate in time, {} events left in buffer", buffer.size());
+        }
+    }
+
+    // 버퍼가 batch-size 보다 적게 차 있으면 flush-interval 만큼 쉬었다가 다시 모은다. 종료 시에는 남은 이벤트를 다 쓰고 나간다.
+    private void flushLoop() {
+        int batchSize = settings.getBatchSize();
+        long intervalNanos = settings.getFlushInterval().toNanos();
+        List<TokenAuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            boolean stopping = !running;
+            buffer.drain(batchSize, batch::add);
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+            if (batch.size() < batchSize) {
+                if (stopping) {
+                    break;
+                }
+                LockSupport.parkNanos(intervalNanos);
+            }
+            batch.clear();
+        }
+    }
+
+    private void flush(List<TokenAuditEvent> batch) {
+        XAddOptions options = XAddOptions.maxlen(settings.getStreamMaxLength()).approximateTrimming(true);
+        try {
+            flushTimer.record(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (TokenAuditEvent event : batch) {
+                    connection.streamCommands().xAdd(StreamRecords.newRecord().in(streamKey).ofMap(fields(event)), options);
+                }
+                return null;
+            }));
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Token audit flush failed for {} events", batch.size(), e);
+        }
+    }
+
+    private static Map<byte[], byte[]> fields(TokenAuditEvent event) {
+        Map<byte[], byte[]> fields = new LinkedHashMap<>(4);
+        fields.put(TYPE_FIELD, bytes(event.getType().name()));
+        if (event.getSubject() != null) {
+            fields.put(SUBJECT_FIELD, bytes(event.getSubject()));
+        }
+        fields.put(OCCURRED_AT_FIELD, bytes(Long.toString(event.getOccurredAt())));
+        return fields;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,274 @@
+package com.spirngboot.redis.cache;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisConstants;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+import com.spirngboot.redis.utils.RedisKeyScanner;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 블랙리스트 Bloom filter 사전 필터
+ *
+ * 검증하는 토큰은 거의 다 블랙리스트가 아니다. Bloom filter는 "없다"는 답이 확실하므로
+ * 필터가 없다고 하면 redis(와 near-cache)를 거치지 않고 바로 false를 반환하고, 있다고 할 때만 redis를 조회한다.
+ *
+ * 필터 관리
+ * - 시작 시 auth:blacklist:* 를 SCAN 해서 만든다. 다 만들어지기 전까지는 필터를 거치지 않는다.
+ * - 이 노드에서의 블랙리스트 등록과 keyspace 이벤트(set)로 들어오는 다른 노드의 등록을 바로 반영한다.
+ * - Bloom filter는 삭제가 안 되므로 rebuild-interval(기본 RedisConstants.TTL.BLACKLIST) 마다 새로 SCAN 해서 교체한다.
+ *   rebuild 도중 들어온 등록은 기존 필터와 새 필터 양쪽에 넣는다.
+ *
+ * 이벤트 누락 대비
+ * 필터의 "없다"는 다른 노드의 등록을 빠짐없이 받는다는 게 확인됐을 때만 믿는다. 블랙리스트는 보안 검사라서 확인이 안 되면 항상 redis를 조회한다. (bypassed 지표)
+ * 다른 노드의 등록을 받는 경로는 둘 중 하나다.
+ * - 폐기 Stream(auth.redis.revocation.enabled) : 노드별 consumer group이라 끊겨도 이어서 받으므로 켜져 있으면 필터를 믿는다. (토폴로지 무관)
+ * - keyevent(set) 구독 : STANDALONE / STANDALONE_REPLICAS / SENTINEL 이면서 rebuild 때 CONFIG GET notify-keyspace-events에
+ *   E와 $ g x(또는 A)가 켜져 있는 게 확인돼야 한다. CONFIG가 막혀 있거나 플래그가 없으면 다음 rebuild에서 다시 확인할 때까지 필터를 믿지 않는다.
+ *   CLUSTER는 keyevent가 노드 로컬이라 구독한 노드의 샤드 이벤트만 들어온다. 그래서 CLUSTER에서는 폐기 Stream 없이는 필터를 만들지 않는다.
+ * keyevent 구독만 쓰는 경우
+ * - 리스너 컨테이너가 구독 중이 아니면(재연결 중 등) 그 순간부터 필터를 거치지 않는다.
+ * - 다시 구독되면 그 사이 이벤트는 사라졌으므로 새로 SCAN 해서 필터를 교체한 뒤에야 다시 필터를 쓴다.
+ * - 구독 상태는 조회 시점과 event-check-interval 마다 확인한다.
+ * 남는 노출 구간 : 연결은 살아있는데 pub/sub 메시지만 유실되는 경우, rebuild 사이에 서버 설정에서 플래그를 끈 경우는 다음 rebuild-interval까지 못 볼 수 있다.
+ * (redis는 pub/sub 출력 버퍼 한도를 넘으면 연결을 끊으므로 대부분 위의 재연결 경로로 잡힌다. 이 구간까지 막으려면 폐기 Stream을 켜자)
+ */
+@Slf4j
+@Component
+public class BlacklistBloomFilter {
+    private static final String METRIC_PREFIX = "auth.blacklist.bloom-filter";
+    private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+
+    private final AuthRedisProperties.BloomFilter settings;
+    private final RedisKeyScanner keyScanner;
+    private final RedisKeyGenerator keyGenerator;
+    // 순환 참조(컨테이너 -> 리스너 -> 필터)를 피하려고 필요할 때 꺼낸다. 없으면(스프링 밖에서 만든 경우) keyevent 설정을 확인할 수 없어서 필터를 믿지 않는다.
+    private final ObjectProvider<RedisMessageListenerContainer> listenerContainer;
+    // 폐기 Stream으로 다른 노드의 등록을 받는지
+    private final boolean revocationFeed;
+    private final boolean clusterMode;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+    // 이벤트를 놓쳤을 수 있는 상태, 구독이 살아있는 동안 rebuild가 끝나야 풀린다.
+    private volatile boolean eventGap;
+    // 마지막 rebuild 때 서버의 notify-keyspace-events가 필요한 플래그를 다 켜고 있었는지
+    private volatile boolean keyeventsVerified;
+
+    private final Counter positives;
+    private final Counter negatives;
+    private final Counter falsePositives;
+    private final Counter bypassed;
+    private final Timer rebuildTimer;
+
+    public BlacklistBloomFilter(
+        AuthRedisProperties authRedisProperties,
+        RedisKeyScanner keyScanner,
+        RedisKeyGenerator keyGenerator,
+        MeterRegistry meterRegistry
+    ) {
+        this(authRedisProperties, keyScanner, keyGenerator, null, meterRegistry);
+    }
+
+    @Autowired
+    public BlacklistBloomFilter(
+        AuthRedisProperties authRedisProperties,
+        RedisKeyScanner keyScanner,
+        RedisKeyGenerator keyGenerator,
+        ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+        MeterRegistry meterRegistry
+    ) {
+        this.settings = authRedisProperties.getBloomFilter();
+        this.keyScanner = keyScanner;
+        this.keyGenerator = keyGenerator;
+        this.listenerContainer = listenerContainer;
+        this.revocationFeed = authRedisProperties.getRevocation().isEnabled();
+        this.clusterMode = authRedisProperties.getTopology().getMode() == AuthRedisProperties.Topology.Mode.CLUSTER;
+
+        this.positives = Counter.builder(METRIC_PREFIX + ".checks").tag("result", "positive").register(meterRegistry);
+        this.negatives = Counter.builder(METRIC_PREFIX + ".checks").tag("result", "negative").register(meterRegistry);
+        this.falsePositives = Counter.builder(METRIC_PREFIX + ".false-positives")
+            .description("필터는 있다고 했지만 redis에는 없던 횟수")
+            .register(meterRegistry);
+        this.bypassed = Counter.builder(METRIC_PREFIX + ".bypassed")
+            .description("등록 이벤트를 다 받는다고 확인되지 않아서 필터를 거치지 않고 redis로 넘긴 조회 수")
+            .register(meterRegistry);
+        this.rebuildTimer = Timer.builder(METRIC_PREFIX + ".rebuild").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".memory", this, filter -> filter.current == null ? 0 : filter.current.memoryBytes())
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".expected-fpp", this, filter -> filter.current == null ? 0 : filter.current.expectedFalsePositiveRate())
+            .register(meterRegistry);
+    }
+
+    /**
+     * 필터가 비활성화 상태이거나 아직 만들어지지 않았거나 다른 노드의 등록을 다 받는다고 확인되지 않으면 항상 true (redis 조회로 넘어감)
+     */
+    public boolean mightContain(String key) {
+        BloomFilter filter = current;
+        if (!settings.isEnabled() || filter == null) {
+            return true;
+        }
+        if (!revocationFeed) {
+            if (!keyeventsVerified) {
+                bypassed.increment();
+                return true;
+            }
+            if (eventGap || !isEventFeedListening()) {
+                eventGap = true;
+                bypassed.increment();
+                return true;
+            }
+        }
+
+        boolean result = filter.mightContain(key);
+        (result ? positives : negatives).increment();
+        return result;
+    }
+
+    // rebuild가 끝나는 순간과 겹쳐도 빠지지 않도록 building을 먼저 읽는다. (rebuild는 current 교체 후 building을 비운다)
+    public void add(String key) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        BloomFilter next = building;
+        BloomFilter filter = current;
+        if (next != null) {
+            next.put(key);
+        }
+        if (filter != null) {
+            filter.put(key);
+        }
+    }
+
+    // 필터 통과 후 redis에서 블랙리스트가 아니라고 확인된 경우 (실측 오탐률 = false-positives / positive)
+    public void recordFalsePositive() {
+        if (settings.isEnabled() && current != null) {
+            falsePositives.increment();
+        }
+    }
+
+    // 기동 warm-up에서 이미 만들었거나 아직 만드는 중이면(budget을 넘겨서 백그라운드로 계속 도는 경우) 다시 SCAN 하지 않는다.
+    // 만드는 중에 rebuild()를 부르면 synchronized라 그 SCAN이 끝날 때까지 ready 이벤트가 막히고 끝나면 SCAN을 한 번 더 한다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (current == null && building == null) {
+            rebuild();
+        }
+    }
+
+    public boolean isBuilt() {
+        return current != null;
+    }
+
+    // 조회가 없는 동안에도 구독 끊김을 알아채고, 다시 구독되면 필터를 새로 만든다.
+    @Scheduled(
+        initialDelayString = "${auth.redis.bloom-filter.event-check-interval:1s}",
+        fixedDelayString = "${auth.redis.bloom-filter.event-check-interval:1s}"
+    )
+    public void checkEventFeed() {
+        if (!settings.isEnabled() || current == null || revocationFeed) {
+            return;
+        }
+        if (!isEventFeedListening()) {
+            if (!eventGap) {
+                log.warn("Blacklist event subscription lost, bypassing bloom filter until it is rebuilt");
+            }
+            eventGap = true;
+        } else if (eventGap) {
+            log.info("Blacklist event subscription restored, rebuilding bloom filter");
+            rebuild();
+        }
+    }
+
+    private boolean isEventFeedListening() {
+        RedisMessageListenerContainer container = listenerContainer();
+        return container != null && container.isListening();
+    }
+
+    // 이 모듈이 CONFIG SET을 하지 않으므로(기본) 서버에 실제로 켜져 있는지 직접 읽어본다. 읽을 수 없으면 꺼진 것으로 본다.
+    private boolean verifyKeyevents() {
+        RedisMessageListenerContainer container = listenerContainer();
+        if (container == null || container.getConnectionFactory() == null) {
+            return false;
+        }
+        try (RedisConnection connection = container.getConnectionFactory().getConnection()) {
+            Properties config = connection.serverCommands().getConfig(NOTIFY_KEYSPACE_EVENTS);
+            String flags = config == null ? null : config.getProperty(NOTIFY_KEYSPACE_EVENTS);
+            return hasKeyeventFlags(flags);
+        } catch (RuntimeException e) {
+            log.warn("Cannot read {} from redis, bloom filter negatives will not be trusted", NOTIFY_KEYSPACE_EVENTS, e);
+            return false;
+        }
+    }
+
+    // E(keyevent 채널)와 set($) / del(g) / expired(x), A는 g$lshzxetd 의 별칭이다.
+    private static boolean hasKeyeventFlags(String flags) {
+        if (flags == null || flags.indexOf('E') < 0) {
+            return false;
+        }
+        return flags.indexOf('A') >= 0 || (flags.indexOf('$') >= 0 && flags.indexOf('g') >= 0 && flags.indexOf('x') >= 0);
+    }
+
+    private RedisMessageListenerContainer listenerContainer() {
+        return listenerContainer == null ? null : listenerContainer.getIfAvailable();
+    }
+
+    @Scheduled(
+        initialDelayString = "${auth.redis.bloom-filter.rebuild-interval:3600s}",
+        fixedDelayString = "${auth.redis.bloom-filter.rebuild-interval:3600s}"
+    )
+    public synchronized void rebuild() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (!revocationFeed) {
+            if (clusterMode) {
+                log.warn("Blacklist bloom filter is not built in CLUSTER mode without auth.redis.revocation.enabled (keyevents are node-local)");
+                return;
+            }
+            boolean verified = verifyKeyevents();
+            if (!verified) {
+                log.warn("Redis {} does not include E$gx, bloom filter negatives will not be trusted", NOTIFY_KEYSPACE_EVENTS);
+            }
+            keyeventsVerified = verified;
+        }
+
+        BloomFilter next = BloomFilter.create(settings.getExpectedInsertions(), settings.getFalsePositiveRate());
+        building = next;
+        // SCAN 하는 동안 계속 구독 중이었어야 그 사이 등록도 빠짐없이 들어간 필터다.
+        boolean listeningAtStart = isEventFeedListening();
+        long start = System.nanoTime();
+        try {
+            long count = keyScanner.scan(keyGenerator.pattern(RedisConstants.Prefix.BLACKLIST), settings.getScanCount(), next::put);
+            current = next;
+            if (listeningAtStart && isEventFeedListening()) {
+                eventGap = false;
+            }
+            long elapsed = System.nanoTime() - start;
+            rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Blacklist bloom filter rebuilt: {} keys, {} bytes, {} ms",
+                count, next.memoryBytes(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } catch (RuntimeException e) {
+            log.error("Blacklist bloom filter rebuild failed, keeping previous filter", e);
+        } finally {
+            building = null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.spirngboot.redis.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * 블랙리스트 조회용 near-cache
+ *
+ * 모든 인증 요청이 isBlacklistToken -> hasKey로 redis를 한번씩 왕복하는데, 결과는 대부분 "블랙리스트 아님"이다.
+ * 그래서 조회 결과를 로컬 메모리(Caffeine)에 잠깐 들고 있다가 재사용한다. 없다는 결과(false)도 같이 캐싱하는게 포인트.
+ * 다른 노드에서 블랙리스트에 등록하면 keyevent 이벤트(__keyevent@*__:set / del / expired 중 auth:blacklist:* 키)를 받아서 해당 엔트리를 무효화한다.
+ *
+ * 단 keyspace 이벤트도 best-effort 이므로 이벤트를 놓치면 max-staleness 만큼은 오래된 값을 볼 수 있다는 점을 인지하자.
+ * 비활성화 상태에서는 캐시를 거치지 않고 바로 redis를 조회한다.
+ *
+ * loader를 블로킹으로 돌릴 수 없는 reactive 경로는 조회 전에 version을 읽어두고 putIfNotInvalidated로 넣는다.
+ * 무효화는 키가 속한 stripe의 version을 올리므로 조회 도중 무효화가 들어왔으면 조회 결과를 넣지 않는다.
+ * (stripe를 나눠 쓰므로 다른 키의 무효화 때문에 넣지 않는 경우도 있지만 다음 조회에서 다시 채워진다)
+ */
+@Component
+public class BlacklistNearCache {
+    private static final int VERSION_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> cache;
+    private final Counter invalidationCounter;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public BlacklistNearCache(AuthRedisProperties properties, MeterRegistry meterRegistry) {
+        AuthRedisProperties.NearCache settings = properties.getNearCache();
+        this.enabled = settings.isEnabled();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumSize())
+            .expireAfterWrite(settings.getMaxStaleness())
+            .recordStats()
+            .build();
+
+        // hit / miss / eviction 지표는 CaffeineCacheMetrics가 등록해준다.
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.blacklist.near-cache");
+        this.invalidationCounter = Counter.builder("auth.blacklist.near-cache.invalidations")
+            .description("keyspace 이벤트로 무효화된 엔트리 수")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 캐시에 없으면 loader로 redis를 조회하고 결과를 캐싱한다.
+     * Caffeine의 get(key, mappingFunction)은 같은 키에 대한 invalidate와 직렬화되므로
+     * 조회 도중 들어온 무효화 이벤트가 조회 결과에 덮어씌워지는 일은 없다.
+     */
+    public boolean get(String key, Predicate<String> loader) {
+        if (!enabled) {
+            return loader.test(key);
+        }
+        return Boolean.TRUE.equals(cache.get(key, loader::test));
+    }
+
+    // 캐시에 있는 값만 본다. 없거나 비활성화 상태면 null (reactive 경로처럼 loader를 블로킹으로 돌릴 수 없는 곳에서 사용)
+    public Boolean getIfPresent(String key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    // reactive 조회 전에 읽어두는 값, putIfNotInvalidated에 그대로 넘긴다.
+    public long version(String key) {
+        return versions.get(stripe(key));
+    }
+
+    // version을 읽은 뒤로 이 키(stripe)가 무효화되지 않았을 때만 넣는다. 확인과 넣기는 invalidate와 같은 키 잠금(compute) 안에서 한다.
+    public void putIfNotInvalidated(String key, boolean blacklisted, long version) {
+        if (enabled) {
+            cache.asMap().compute(key, (k, current) -> versions.get(stripe(k)) == version ? Boolean.valueOf(blacklisted) : current);
+        }
+    }
+
+    // 로컬에서 블랙리스트에 등록한 경우 이벤트를 기다리지 않고 바로 반영
+    public void put(String key, boolean blacklisted) {
+        if (enabled) {
+            cache.put(key, blacklisted);
+        }
+    }
+
+    public void invalidate(String key) {
+        if (enabled) {
+            cache.asMap().compute(key, (k, current) -> {
+                versions.incrementAndGet(stripe(k));
+                return null;
+            });
+            invalidationCounter.increment();
+        }
+    }
+
+    private static int stripe(String key) {
+        return key.hashCode() & (VERSION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,334 @@
+package com.spirngboot.redis.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.config.RedisConfig;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 숫자 memberId용 Role 비트맵 저장소
+ *
+ * RedisUtil의 role은 Set에 JSON 문자열로 멤버를 넣기 때문에 getUsersByRole은 Set 전체를 가져와서 역직렬화한다.
+ * 멤버가 수백만인 role이면 호출마다 수 MB가 오간다. memberId가 숫자면 memberId를 비트 오프셋으로 쓰는 비트맵(SETBIT)으로 저장한다.
+ * 500만 명이면 625KB 고정이고, 이걸 로컬 스냅샷(BitSet)으로 들고 있으면 멤버 여부 / 수 / 교집합 / 합집합을 네트워크 없이 계산할 수 있다.
+ *
+ * 스냅샷 관리
+ * - role을 처음 조회할 때 비트맵 전체를 한번 가져온다. (read-through)
+ * - 변경은 update-role-bitmap.lua가 비트맵과 변경 로그 Stream(auth:role-bitmap:{role}:changes)에 같이 남긴다.
+ * - refresh-interval 마다 마지막으로 본 로그 이후 변경만 XRANGE로 가져와서 반영한다. (증분 갱신)
+ * - 로그가 MAXLEN으로 잘려서 마지막으로 본 위치가 없어졌으면 비트맵 전체를 다시 가져온다.
+ * 스냅샷은 복사 후 교체(copy-on-write)라 읽기는 락 없이 하고, 다른 노드의 변경은 refresh-interval 만큼 늦게 보일 수 있다.
+ * 복사 한번이 비트맵 전체(500만 명이면 625KB)라 여러 멤버를 바꿀 때는 addMembers / removeMembers로 묶어야 복사도 한번만 한다.
+ * (addMember를 루프로 부르면 멤버마다 복사한다)
+ *
+ * 주의 : 비트 오프셋이라 memberId는 0 ~ Integer.MAX_VALUE 범위만 가능하고, 큰 memberId 하나만 있어도 비트맵이 그만큼 커진다.
+ */
+@Slf4j
+@Component
+public class RoleBitmapStore {
+    private static final RedisScript<Long> UPDATE_ROLE_BITMAP_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/update-role-bitmap.lua"), Long.class);
+    private static final RecordId INITIAL_ID = RecordId.of("0-0");
+    private static final String MEMBER_FIELD = "m";
+    private static final String BIT_FIELD = "b";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, Object> readOnlyRedisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final AuthRedisProperties.RoleBitmap settings;
+    private final int bulkBatchSize;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+    private final Counter changes;
+
+    public RoleBitmapStore(
+        RedisTemplate<String, Object> redisTemplate,
+        @Qualifier(RedisConfig.READ_ONLY_REDIS_TEMPLATE) RedisTemplate<String, Object> readOnlyRedisTemplate,
+        RedisKeyGenerator keyGenerator,
+        AuthRedisProperties authRedisProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.readOnlyRedisTemplate = readOnlyRedisTemplate;
+        this.keyGenerator = keyGenerator;
+        this.settings = authRedisProperties.getRoleBitmap();
+        this.bulkBatchSize = authRedisProperties.getBulk().getBatchSize();
+
+        this.loads = Counter.builder("auth.role-bitmap.loads")
+            .description("비트맵 전체를 가져온 횟수 (최초 조회, 변경 로그 유실)")
+            .register(meterRegistry);
+        this.changes = Counter.builder("auth.role-bitmap.changes")
+            .description("증분 갱신으로 반영한 변경 수")
+            .register(meterRegistry);
+        Gauge.builder("auth.role-bitmap.snapshots", snapshots, Map::size).register(meterRegistry);
+    }
+
+    // 추가되었으면 true (이미 있었으면 false)
+    public boolean addMember(String role, long memberId) {
+        return update(role, new int[] {offset(memberId)}, true) > 0;
+    }
+
+    // 제거되었으면 true (원래 없었으면 false)
+    public boolean removeMember(String role, long memberId) {
+        return update(role, new int[] {offset(memberId)}, false) > 0;
+    }
+
+    // 실제로 추가된 멤버 수, 로컬 스냅샷은 한번만 복사한다.
+    public long addMembers(String role, Collection<Long> memberIds) {
+        return update(role, offsets(memberIds), true);
+    }
+
+    // 실제로 제거된 멤버 수, 로컬 스냅샷은 한번만 복사한다.
+    public long removeMembers(String role, Collection<Long> memberIds) {
+        return update(role, offsets(memberIds), false);
+    }
+
+    public boolean isMember(String role, long memberId) {
+        return snapshot(role).members.get(offset(memberId));
+    }
+
+    public long count(String role) {
+        return snapshot(role).members.cardinality();
+    }
+
+    public long[] members(String role) {
+        return snapshot(role).members.stream().asLongStream().toArray();
+    }
+
+    // 모든 role에 속한 멤버 수 (예: ADMIN 이면서 BILLING)
+    public long intersectionCount(String... roles) {
+        return combine(roles, BitSet::and);
+    }
+
+    // 하나 이상의 role에 속한 멤버 수
+    public long unionCount(String... roles) {
+        return combine(roles, BitSet::or);
+    }
+
+    // 첫 조회 전에 스냅샷을 미리 가져온다. (기동 warm-up 용, 이미 있으면 아무것도 안 한다)
+    public void prime(String role) {
+        snapshot(role);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.redis.role-bitmap.refresh-interval:1s}")
+    public void refresh() {
+        snapshots.forEach((role, snapshot) -> {
+            try {
+                refresh(role, snapshot);
+            } catch (RuntimeException e) {
+                log.warn("Role bitmap refresh failed: {}", role, e);
+            }
+        });
+    }
+
+    // 스크립트 한번에 bulk batch-size 개씩 보낸다. (한 스크립트가 너무 오래 redis를 잡지 않도록)
+    private long update(String role, int[] offsets, boolean member) {
+        if (offsets.length == 0) {
+            return 0;
+        }
+        List<String> keys = List.of(keyGenerator.roleBitmap(role), keyGenerator.roleBitmapChanges(role));
+        String bit = member ? "1" : "0";
+        String maxLength = String.valueOf(settings.getChangeLogMaxLength());
+        long changed = 0;
+        for (int from = 0; from < offsets.length; from += bulkBatchSize) {
+            int to = Math.min(offsets.length, from + bulkBatchSize);
+            Object[] args = new Object[to - from + 2];
+            args[0] = bit;
+            args[1] = maxLength;
+            for (int i = from; i < to; i++) {
+                args[i - from + 2] = String.valueOf(offsets[i]);
+            }
+            Long result = redisTemplate.execute(
+                UPDATE_ROLE_BITMAP_SCRIPT,
+                RedisSerializer.string(),
+                new GenericToStringSerializer<>(Long.class),
+                keys,
+                args
+            );
+            changed += result == null ? 0 : result;
+        }
+
+        // 이 노드에서 바꾼건 refresh를 기다리지 않고 바로 반영 (refresh에서 같은 변경을 다시 적용해도 결과는 같다)
+        Snapshot snapshot = snapshots.get(role);
+        if (snapshot != null) {
+            snapshot.set(offsets, member);
+        }
+        return changed;
+    }
+
+    private long combine(String[] roles, BiConsumer<BitSet, BitSet> operator) {
+        if (roles.length == 0) {
+            return 0;
+        }
+        BitSet result = (BitSet) snapshot(roles[0]).members.clone();
+        for (int i = 1; i < roles.length; i++) {
+            operator.accept(result, snapshot(roles[i]).members);
+        }
+        return result.cardinality();
+    }
+
+    // computeIfAbsent 안에서 redis를 조회하므로 같은 role을 동시에 처음 조회해도 한번만 가져온다.
+    private Snapshot snapshot(String role) {
+        return snapshots.computeIfAbsent(role, this::load);
+    }
+
+    // 로그 위치를 먼저 읽고 비트맵을 읽는다. 그 사이에 들어온 변경은 다음 refresh에서 한번 더 적용되는데 set / clear라 결과는 같다.
+    private Snapshot load(String role) {
+        byte[] bitmapKey = serializeKey(keyGenerator.roleBitmap(role));
+        byte[] changesKey = serializeKey(keyGenerator.roleBitmapChanges(role));
+        Snapshot snapshot = readOnlyRedisTemplate.execute((RedisCallback<Snapshot>) connection -> {
+            List<ByteRecord> last = connection.streamCommands().xRevRange(changesKey, Range.unbounded(), Limit.limit().count(1));
+            RecordId lastId = last == null || last.isEmpty() ? INITIAL_ID : last.get(0).getId();
+            return new Snapshot(toBitSet(connection.stringCommands().get(bitmapKey)), lastId);
+        });
+        loads.increment();
+        return snapshot;
+    }
+
+    private void refresh(String role, Snapshot snapshot) {
+        byte[] changesKey = serializeKey(keyGenerator.roleBitmapChanges(role));
+        int batchSize = settings.getRefreshBatchSize();
+        while (true) {
+            RecordId from = snapshot.lastId;
+            // 마지막으로 본 엔트리부터(포함) 가져와서 그 엔트리가 아직 있는지로 로그가 잘렸는지 확인한다.
+            List<ByteRecord> records = readOnlyRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xRange(changesKey, Range.rightUnbounded(Range.Bound.inclusive(from.getValue())),
+                    Limit.limit().count(batchSize + 1)));
+            if (records == null) {
+                return;
+            }
+
+            boolean initial = INITIAL_ID.equals(from);
+            if (!initial && (records.isEmpty() || !from.equals(records.get(0).getId()))) {
+                log.info("Role bitmap change log trimmed past {}, reloading {}", from, role);
+                snapshots.put(role, load(role));
+                return;
+            }
+
+            List<ByteRecord> pending = initial ? records : records.subList(1, records.size());
+            if (pending.isEmpty()) {
+                return;
+            }
+            snapshot.apply(pending);
+            changes.increment(pending.size());
+            if (records.size() <= batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int offset(long memberId) {
+        if (memberId < 0 || memberId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("memberId must be between 0 and " + Integer.MAX_VALUE + ": " + memberId);
+        }
+        return (int) memberId;
+    }
+
+    // 하나라도 범위를 벗어나면 redis에 보내기 전에 실패한다.
+    private int[] offsets(Collection<Long> memberIds) {
+        int[] offsets = new int[memberIds.size()];
+        int i = 0;
+        for (long memberId : memberIds) {
+            offsets[i++] = offset(memberId);
+        }
+        return offsets;
+    }
+
+    // redis 비트맵은 바이트마다 최상위 비트가 앞 오프셋이고 BitSet.valueOf는 최하위 비트가 앞이라 바이트마다 비트 순서를 뒤집는다.
+    private static BitSet toBitSet(byte[] bitmap) {
+        if (bitmap == null) {
+            return new BitSet();
+        }
+        byte[] reversed = new byte[bitmap.length];
+        for (int i = 0; i < bitmap.length; i++) {
+            reversed[i] = (byte) (Integer.reverse(bitmap[i] & 0xFF) >>> 24);
+        }
+        return BitSet.valueOf(reversed);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    /**
+     * role 하나의 로컬 스냅샷
+     * members는 한번 공개하면 절대 수정하지 않고, 바꿀 때는 복사본을 만들어서 통째로 교체한다.
+     */
+    private static final class Snapshot {
+        private volatile BitSet members;
+        private volatile RecordId lastId;
+
+        private Snapshot(BitSet members, RecordId lastId) {
+            this.members = members;
+            this.lastId = lastId;
+        }
+
+        // 이미 전부 원하는 값이면 (refresh가 먼저 반영했거나 바뀐게 없으면) 복사하지 않는다.
+        private synchronized void set(int[] offsets, boolean member) {
+            BitSet current = members;
+            BitSet next = null;
+            for (int offset : offsets) {
+                if (current.get(offset) == member) {
+                    continue;
+                }
+                if (next == null) {
+                    next = (BitSet) current.clone();
+                }
+                next.set(offset, member);
+            }
+            if (next != null) {
+                members = next;
+            }
+        }
+
+        private synchronized void apply(List<ByteRecord> records) {
+            BitSet next = (BitSet) members.clone();
+            for (ByteRecord record : records) {
+                int offset = -1;
+                boolean member = false;
+                for (Map.Entry<byte[], byte[]> field : record.getValue().entrySet()) {
+                    String name = new String(field.getKey(), StandardCharsets.UTF_8);
+                    String value = new String(field.getValue(), StandardCharsets.UTF_8);
+                    if (MEMBER_FIELD.equals(name)) {
+                        offset = Integer.parseInt(value);
+                    } else if (BIT_FIELD.equals(name)) {
+                        member = "1".equals(value);
+                    }
+                }
+                if (offset >= 0) {
+                    next.set(offset, member);
+                }
+            }
+            members = next;
+            lastId = records.get(records.size() - 1).getId();
+        }
+    }
+}
@@ -1,25 +1,46 @@
 package com.spirngboot.redis.config;
 
+import java.util.HashSet;
+
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.KeyExpirationEventMessageListener;
 import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spirngboot.redis.listener.BlacklistKeyspaceEventListener;
+import com.spirngboot.redis.serializer.CompactTokenRedisSerializer;
+import com.spirngboot.redis.serializer.RedisKeySerializer;
+import com.spirngboot.redis.serializer.MeteredRedisSerializer;
+import com.spirngboot.redis.settings.AuthRedisProperties;
 
 import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.metrics.MicrometerCommandLatencyRecorder;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
 import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -28,58 +49,218 @@ import lombok.RequiredArgsConstructor;
 public class RedisConfig {
     private final RedisProperties redisProperties;
     private final ObjectMapper objectMapper;
+    private final AuthRedisProperties authRedisProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Lettuce IO / computation 스레드 풀
+     * 예전에는 4개로 고정했었는데, 배포되는 장비마다 코어 수가 다르므로 설정이 없으면 코어 수에 맞춘다.
+     * 커넥션 팩토리와 같이 내려가도록 빈으로 등록해서 shutdown을 보장한다.
+     *
+     * ClientResources를 직접 만들면 스프링 부트의 Lettuce 메트릭 자동 설정이 적용되지 않으므로
+     * 명령 지연 기록기(lettuce.command.completion / firstresponse)를 여기서 직접 붙인다.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources() {
+        AuthRedisProperties.Topology topology = authRedisProperties.getTopology();
+        int cores = Runtime.getRuntime().availableProcessors();
+        return DefaultClientResources.builder()
+            .ioThreadPoolSize(topology.getIoThreads() > 0 ? topology.getIoThreads() : cores)
+            .computationThreadPoolSize(topology.getComputationThreads() > 0 ? topology.getComputationThreads() : cores)
+            .commandLatencyRecorder(new MicrometerCommandLatencyRecorder(meterRegistry, MicrometerOptions.builder()
+                .histogram(authRedisProperties.getMetrics().isPercentileHistogram())
+                .build()))
+            .build();
+    }
 
+    /**
+     * 토폴로지(standalone / standalone-replicas / sentinel / cluster)에 맞는 커넥션 팩토리
+     *
+     * standalone 외의 모드에서는 read-from(기본 REPLICA_PREFERRED)을 적용해서 GET, EXISTS, SISMEMBER 같은 읽기 명령을
+     * replica로 보낸다. 쓰기와 Lua 스크립트는 항상 primary로 간다.
+     * replica 읽기는 복제 지연만큼 오래된 값을 볼 수 있다는 점을 인지하자. (방금 블랙리스트에 넣은 토큰이 잠깐 안 보일 수 있음)
+     * 반환 타입을 LettuceConnectionFactory로 둬야 reactiveRedisTemplate의 ReactiveRedisConnectionFactory 주입이
+     * 빈 생성 순서와 관계없이 이 빈으로 결정된다. (RedisConnectionFactory로 선언하면 이미 만들어진 싱글톤으로만 매칭됨)
+     */
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
-        config.setHostName(redisProperties.getHost());
-        config.setPort(redisProperties.getPort());
-        config.setPassword(RedisPassword.of(redisProperties.getPassword()));
+    public LettuceConnectionFactory redisConnectionFactory(ClientResources lettuceClientResources) {
+        AuthRedisProperties.Topology topology = authRedisProperties.getTopology();
 
-        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfig = LettuceClientConfiguration.builder()
             .commandTimeout(redisProperties.getTimeout())
-            .clientOptions(ClientOptions.builder()
+            .clientOptions(clientOptions(topology))
+            .clientResources(lettuceClientResources)
+            .useSsl()
+            .and();
+        if (topology.getMode() != AuthRedisProperties.Topology.Mode.STANDALONE) {
+            clientConfig.readFrom(ReadFrom.valueOf(topology.getReadFrom()));
+        }
+
+        LettuceConnectionFactory connectionFactory = switch (topology.getMode()) {
+            case CLUSTER -> new LettuceConnectionFactory(clusterConfiguration(), clientConfig.build());
+            case SENTINEL -> new LettuceConnectionFactory(sentinelConfiguration(), clientConfig.build());
+            case STANDALONE_REPLICAS -> new LettuceConnectionFactory(staticMasterReplicaConfiguration(topology), clientConfig.build());
+            case STANDALONE -> new LettuceConnectionFactory(standaloneConfiguration(), clientConfig.build());
+        };
+        // 트랜잭션 / 블로킹 명령이 아닌 일반 명령은 하나의 네이티브 커넥션을 공유한다. (기본값이지만 hot path 전제이므로 명시)
+        connectionFactory.setShareNativeConnection(true);
+        return connectionFactory;
+    }
+
+    private ClientOptions clientOptions(AuthRedisProperties.Topology topology) {
+        if (topology.getMode() == AuthRedisProperties.Topology.Mode.CLUSTER) {
+            // 클러스터는 슬롯 이동 / failover 시 토폴로지를 다시 읽어야 MOVED 리다이렉트가 줄어든다.
+            return ClusterClientOptions.builder()
                 .autoReconnect(true)
                 .publishOnScheduler(false)
-                .build())
-            .clientResources(DefaultClientResources.builder()
-                .ioThreadPoolSize(4)
-                .computationThreadPoolSize(4)
-                .build())
-            .useSsl()
+                .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                    .enableAllAdaptiveRefreshTriggers()
+                    .enablePeriodicRefresh(topology.getClusterRefreshPeriod())
+                    .build())
+                .build();
+        }
+        return ClientOptions.builder()
+            .autoReconnect(true)
+            .publishOnScheduler(false)
             .build();
+    }
+
+    private RedisStandaloneConfiguration standaloneConfiguration() {
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
+        config.setHostName(redisProperties.getHost());
+        config.setPort(redisProperties.getPort());
+        config.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        return config;
+    }
+
+    // primary는 spring.data.redis.host/port, replica는 auth.redis.topology.replica-nodes
+    private RedisStaticMasterReplicaConfiguration staticMasterReplicaConfiguration(AuthRedisProperties.Topology topology) {
+        RedisStaticMasterReplicaConfiguration config =
+            new RedisStaticMasterReplicaConfiguration(redisProperties.getHost(), redisProperties.getPort());
+        for (String node : topology.getReplicaNodes()) {
+            int index = node.lastIndexOf(':');
+            config.node(node.substring(0, index), Integer.parseInt(node.substring(index + 1)));
+        }
+        config.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        return config;
+    }
+
+    private RedisSentinelConfiguration sentinelConfiguration() {
+        RedisProperties.Sentinel sentinel = redisProperties.getSentinel();
+        RedisSentinelConfiguration config = new RedisSentinelConfiguration(sentinel.getMaster(), new HashSet<>(sentinel.getNodes()));
+        config.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        if (sentinel.getPassword() != null) {
+            config.setSentinelPassword(RedisPassword.of(sentinel.getPassword()));
+        }
+        return config;
+    }
 
-        return new LettuceConnectionFactory(config, clientConfig);
+    private RedisClusterConfiguration clusterConfiguration() {
+        RedisProperties.Cluster cluster = redisProperties.getCluster();
+        RedisClusterConfiguration config = new RedisClusterConfiguration(cluster.getNodes());
+        if (cluster.getMaxRedirects() != null) {
+            config.setMaxRedirects(cluster.getMaxRedirects());
+        }
+        config.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        return config;
     }
 
+    public static final String READ_ONLY_REDIS_TEMPLATE = "readOnlyRedisTemplate";
+
+    /**
+     * 쓰기용 템플릿 (트랜잭션 지원)
+     * @Transactional 안에서는 커넥션을 스레드에 묶고 명령을 MULTI에 쌓기 때문에 읽기 결과가 null로 나온다.
+     * 그래서 읽기 전용 명령은 아래의 readOnlyRedisTemplate을 사용하도록 한다.
+     */
     @Bean
+    @Primary
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> redisTemplate = createRedisTemplate(connectionFactory);
+        redisTemplate.setEnableTransactionSupport(true);
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+
+    /**
+     * 읽기 전용 템플릿 (트랜잭션 미지원)
+     * 트랜잭션에 묶이지 않으므로 LettuceConnectionFactory의 공유 네이티브 커넥션 위에서 명령이 multiplexing 된다.
+     * 즉 동시에 수천 건의 토큰 검증이 들어와도 커넥션을 요청마다 잡지 않고 몇 개의 커넥션으로 처리된다.
+     */
+    @Bean(READ_ONLY_REDIS_TEMPLATE)
+    public RedisTemplate<String, Object> readOnlyRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> redisTemplate = createRedisTemplate(connectionFactory);
+        redisTemplate.setEnableTransactionSupport(false);
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+
+    /**
+     * WebFlux 기반 서비스용 reactive 템플릿 (ReactiveRedisUtil에서 사용)
+     * 같은 커넥션 팩토리와 같은 직렬화기를 쓰므로 블로킹 템플릿으로 저장한 값을 그대로 읽을 수 있다.
+     * 빈 이름을 reactiveRedisTemplate으로 두어서 스프링 부트 기본(JDK 직렬화) 템플릿 대신 사용되도록 한다.
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        RedisSerializer<Object> valueSerializer = valueSerializer();
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+            .<String, Object>newSerializationContext(RedisKeySerializer.INSTANCE)
+            .value(valueSerializer)
+            .hashKey(RedisKeySerializer.INSTANCE)
+            .hashValue(valueSerializer)
+            .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+    }
+
+    private RedisTemplate<String, Object> createRedisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(connectionFactory);
 
-        redisTemplate.setKeySerializer(new StringRedisSerializer());
-        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
-        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
-        redisTemplate.setHashValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
-
-        redisTemplate.setEnableTransactionSupport(true);
-        redisTemplate.afterPropertiesSet();
+        RedisSerializer<Object> valueSerializer = valueSerializer();
+        // 키 / Hash 필드는 StringRedisSerializer와 같은 UTF-8 바이트를 만들지만 할당이 적은 RedisKeySerializer를 쓴다.
+        redisTemplate.setKeySerializer(RedisKeySerializer.INSTANCE);
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashKeySerializer(RedisKeySerializer.INSTANCE);
+        redisTemplate.setHashValueSerializer(valueSerializer);
         return redisTemplate;
     }
 
+    // 토큰 객체는 compact 포맷으로도 쓸 수 있고, 읽기는 JSON / compact 둘 다 가능하다.
+    // payload 크기를 재기 위해 MeteredRedisSerializer로 한번 감싼다.
+    private RedisSerializer<Object> valueSerializer() {
+        boolean writeCompact = authRedisProperties.getSerialization().getFormat() == AuthRedisProperties.Serialization.Format.COMPACT;
+        return new MeteredRedisSerializer(
+            new CompactTokenRedisSerializer(new GenericJackson2JsonRedisSerializer(objectMapper), writeCompact),
+            meterRegistry,
+            authRedisProperties.getMetrics().isPercentileHistogram()
+        );
+    }
+
     @Bean
     public RedisMessageListenerContainer redisMessageListenerContainer(
         RedisConnectionFactory connectionFactory,
-        KeyExpirationEventMessageListener keyExpirationEventMessageListener
+        KeyExpirationEventMessageListener keyExpirationEventMessageListener,
+        BlacklistKeyspaceEventListener blacklistKeyspaceEventListener
     ) {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
         
         // 키 만료 이벤트 리스너 등록
+        // 클러스터 모드에서 keyspace 이벤트는 노드 로컬이라 구독한 노드의 이벤트만 들어온다. 놓친 만료는 TokenExpirySweeper가 잡는다.
         container.addMessageListener(
             keyExpirationEventMessageListener, 
             new PatternTopic("__keyevent@*__:expired")
         );
+
+        // 블랙리스트 near-cache 무효화 / Bloom filter 갱신용 keyevent 리스너 등록 (블랙리스트 키 필터링은 리스너에서)
+        // 클러스터에서는 다른 샤드의 등록이 안 들어오므로 Bloom filter는 폐기 Stream이 켜져 있어야 만들어진다. (BlacklistBloomFilter 참고)
+        if (authRedisProperties.getNearCache().isEnabled() || authRedisProperties.getBloomFilter().isEnabled()) {
+            container.addMessageListener(
+                blacklistKeyspaceEventListener,
+                BlacklistKeyspaceEventListener.EVENTS.stream()
+                    .map(event -> new PatternTopic(BlacklistKeyspaceEventListener.KEYEVENT_CHANNEL_PREFIX + event))
+                    .toList()
+            );
+        }
         
         return container;
     }
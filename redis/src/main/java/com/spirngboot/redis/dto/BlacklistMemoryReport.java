@@ -0,0 +1,37 @@
+package com.spirngboot.redis.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 블랙리스트 레이아웃별 엔트리당 메모리 사용량 리포트
+ *
+ * 레이아웃마다 키를 샘플링해서 MEMORY USAGE(키 + 값 + redis 내부 오버헤드)를 합산한 값이다.
+ * 마이그레이션 도중에는 두 레이아웃이 같이 있으므로 같은 시점에 전후 비교가 된다.
+ */
+@Getter
+@Builder
+public class BlacklistMemoryReport {
+    private final LayoutUsage token;
+    private final LayoutUsage digest;
+
+    // DIGEST가 TOKEN 대비 엔트리당 줄인 비율 (둘 중 하나라도 샘플이 없으면 null)
+    public Double getSavingRatio() {
+        if (token.getSampledKeys() == 0 || digest.getSampledKeys() == 0) {
+            return null;
+        }
+        return 1 - digest.getAverageBytes() / token.getAverageBytes();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class LayoutUsage {
+        private final long sampledKeys;
+        private final long totalBytes;
+
+        public double getAverageBytes() {
+            return sampledKeys == 0 ? 0 : (double) totalBytes / sampledKeys;
+        }
+    }
+}
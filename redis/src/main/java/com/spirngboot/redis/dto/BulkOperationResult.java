@@ -0,0 +1,48 @@
+package com.spirngboot.redis.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * pipeline 기반 Bulk 작업 결과
+ *
+ * 항목(토큰, memberId)별로 어떻게 처리되었는지를 입력 순서대로 담는다.
+ * - APPLIED   : 실제로 반영됨 (SET 성공, SADD/SREM 으로 추가/삭제됨)
+ * - UNCHANGED : 명령은 성공했지만 바뀐게 없음 (이미 role에 있거나, 이미 role에 없던 경우)
+ * - FAILED    : 명령 실패 또는 해당 batch 전체가 실패
+ */
+public class BulkOperationResult {
+    public enum Status {
+        APPLIED, UNCHANGED, FAILED;
+
+        // pipeline 응답(Boolean / Long)을 상태로 변환
+        public static Status of(Object reply) {
+            if (reply instanceof Boolean applied) {
+                return applied ? APPLIED : FAILED;
+            }
+            if (reply instanceof Long count) {
+                return count > 0 ? APPLIED : UNCHANGED;
+            }
+            return FAILED;
+        }
+    }
+
+    private final Map<String, Status> statuses = new LinkedHashMap<>();
+
+    public void record(String item, Status status) {
+        statuses.put(item, status);
+    }
+
+    public Map<String, Status> getStatuses() {
+        return Collections.unmodifiableMap(statuses);
+    }
+
+    public long count(Status status) {
+        return statuses.values().stream().filter(status::equals).count();
+    }
+
+    public boolean hasFailures() {
+        return statuses.containsValue(Status.FAILED);
+    }
+}
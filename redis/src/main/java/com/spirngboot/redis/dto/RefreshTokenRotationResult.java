@@ -0,0 +1,18 @@
+package com.spirngboot.redis.dto;
+
+/**
+ * Refresh Token 교체 결과
+ * - ROTATED   : 저장된 토큰과 일치해서 새 토큰으로 교체, 이전 토큰은 블랙리스트에 등록
+ * - MISMATCH  : 저장된 토큰과 다름 (이미 교체된 토큰의 재사용이거나 동시 요청에서 진 쪽)
+ * - NOT_FOUND : 저장된 토큰이 없음 (만료 또는 로그아웃)
+ */
+public enum RefreshTokenRotationResult {
+    ROTATED, MISMATCH, NOT_FOUND;
+
+    public static RefreshTokenRotationResult of(Long reply) {
+        if (reply == null || reply < 0) {
+            return NOT_FOUND;
+        }
+        return reply > 0 ? ROTATED : MISMATCH;
+    }
+}
@@ -0,0 +1,24 @@
+package com.spirngboot.redis.dto;
+
+import lombok.Getter;
+
+/**
+ * 토큰 lifecycle audit 이벤트
+ * subject는 대상 식별자(memberId, 만료된 키, 토큰 digest)이고 토큰 원문은 담지 않는다.
+ */
+@Getter
+public class TokenAuditEvent {
+    public enum Type {
+        ISSUED, REFRESHED, BLACKLISTED, EXPIRED
+    }
+
+    private final Type type;
+    private final String subject;
+    private final long occurredAt;
+
+    public TokenAuditEvent(Type type, String subject, long occurredAt) {
+        this.type = type;
+        this.subject = subject;
+        this.occurredAt = occurredAt;
+    }
+}
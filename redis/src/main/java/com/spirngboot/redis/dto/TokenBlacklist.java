@@ -1,6 +1,7 @@
 package com.spirngboot.redis.dto;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -20,4 +21,11 @@ public class TokenBlacklist {
         this.expirationTime = expirationTime;
         this.blacklistedAt = blacklistedAt;
     }
+
+    // DIGEST 레이아웃에서 값으로 저장하는 등록 시각(ms), 없으면 현재 시각
+    public long blacklistedAtEpochMilli() {
+        return blacklistedAt == null
+            ? System.currentTimeMillis()
+            : blacklistedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
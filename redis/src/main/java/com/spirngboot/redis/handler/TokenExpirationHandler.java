@@ -0,0 +1,74 @@
+package com.spirngboot.redis.handler;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.audit.TokenAuditWriter;
+import com.spirngboot.redis.dto.TokenAuditEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 토큰 / 세션 만료 처리 핸들러
+ *
+ * 키 만료 이벤트 리스너와 만료 sweeper가 같은 처리 로직을 쓰도록 분리했다.
+ * access / refresh 만료는 둘 중 한 경로로만 들어온다. (sweeper가 켜져 있으면 sweeper, 아니면 이벤트) 그래도 sweeper는 장애 시 재처리될 수 있으므로 멱등하게 작성하자.
+ *
+ * subject는 토큰 원문이 아니다. 이벤트 경로는 만료된 키(auth:access:{memberId} 등), sweeper 경로는 토큰 digest(RedisKeyGenerator.tokenDigest)가 들어온다.
+ * 그대로 로그 / audit에 남겨도 된다.
+ *
+ * 만료 이벤트는 KeyExpirationEventDispatcher가 묶어서(batch) 넘겨준다. 외부 알림이나 audit 기록처럼 I/O가 있는 처리는
+ * batch 메서드에서 한번에 보내도록 구현하는게 좋다.
+ * audit 기록은 TokenAuditWriter 버퍼에 넣기만 하고 실제 쓰기는 flush 스레드가 묶어서 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenExpirationHandler {
+    private final TokenAuditWriter tokenAuditWriter;
+
+    public void handleAccessTokenExpiration(String subject) {
+        // Access Token 만료 처리 로직
+        // 예시:
+        // - 사용자 강제 로그아웃 처리
+        // - 다른 서비스에 만료 알림
+        // - 통계 데이터 수집
+        log.info("Access token expired: {}", subject);
+        tokenAuditWriter.record(TokenAuditEvent.Type.EXPIRED, subject);
+    }
+
+    public void handleRefreshTokenExpiration(String subject) {
+        // Refresh Token 만료 처리 로직
+        // 예시:
+        // - 연관된 다른 서비스의 캐시 정리
+        // - 다른 서비스에 만료 이벤트 전파
+        log.info("Refresh token expired: {}", subject);
+        tokenAuditWriter.record(TokenAuditEvent.Type.EXPIRED, subject);
+    }
+
+    public void handleSessionExpiration(String key) {
+        // Session 만료 처리 로직
+        // 예시:
+        // - 연결된 웹소켓 세션 정리
+        // - 사용자 상태 업데이트
+        // - 리소스 정리
+        log.info("Session expired: {}", key);
+    }
+
+    // ------------------------------------------------------------
+    // batch 처리 (기본은 단건 처리 반복)
+
+    public void handleAccessTokenExpirations(List<String> subjects) {
+        subjects.forEach(this::handleAccessTokenExpiration);
+    }
+
+    public void handleRefreshTokenExpirations(List<String> subjects) {
+        subjects.forEach(this::handleRefreshTokenExpiration);
+    }
+
+    public void handleSessionExpirations(List<String> keys) {
+        keys.forEach(this::handleSessionExpiration);
+    }
+}
@@ -0,0 +1,56 @@
+package com.spirngboot.redis.listener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.cache.BlacklistBloomFilter;
+import com.spirngboot.redis.cache.BlacklistNearCache;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 블랙리스트 키 이벤트 리스너
+ *
+ * __keyevent@{db}__:set / del / expired 채널로 들어오는 이벤트를 받아서 near-cache의 해당 엔트리를 무효화한다.
+ * keyevent 채널은 채널명이 이벤트 종류이고, 메시지 본문이 키이다. 모든 키의 이벤트가 들어오므로 블랙리스트 키만 골라서 처리한다.
+ * 어떤 이벤트든 값이 바뀌었다는 뜻이므로 near-cache는 이벤트 종류를 구분하지 않고 무효화만 한다.
+ * set 이벤트는 새로 블랙리스트에 등록된 것이므로 Bloom filter에도 추가한다.
+ *
+ * keyspace 채널(K)은 키마다 채널이 따로라 서버 전체에 K 플래그를 켜야 된다. keyevent(E) 채널 세 개면 충분하다. (notify-keyspace-events "E$gx")
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlacklistKeyspaceEventListener implements MessageListener {
+    public static final String KEYEVENT_CHANNEL_PREFIX = "__keyevent@*__:";
+    public static final List<String> EVENTS = List.of("set", "del", "expired");
+    private static final String CHANNEL_EVENT_DELIMITER = "__:";
+    private static final String SET_EVENT = "set";
+
+    private final BlacklistNearCache blacklistNearCache;
+    private final BlacklistBloomFilter blacklistBloomFilter;
+    private final RedisKeyGenerator keyGenerator;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (keyGenerator.blacklistToken(key) == null) {
+            return;
+        }
+
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        int index = channel.indexOf(CHANNEL_EVENT_DELIMITER);
+        String event = index < 0 ? "" : channel.substring(index + CHANNEL_EVENT_DELIMITER.length());
+        log.debug("Blacklist key changed: {} ({})", key, event);
+        blacklistNearCache.invalidate(key);
+        if (SET_EVENT.equals(event)) {
+            blacklistBloomFilter.add(key);
+        }
+    }
+}
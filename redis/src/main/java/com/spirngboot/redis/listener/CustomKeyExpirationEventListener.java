@@ -5,6 +5,9 @@ import org.springframework.data.redis.listener.KeyExpirationEventMessageListener
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
 
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -16,55 +19,38 @@ import lombok.extern.slf4j.Slf4j;
  * 하지만 Redis의 키 만료 이벤트는 best-effort 방식 100프로 보장이 아님
  * 따라서 개선 방안이 필요함 -> 예를 들어 실패 시 재시도 매커니즘 추가, 주기적으로 만료 여부를 체크하는 배치 작업 또는 이벤트 기반 처리 외에도 폴링이나 TTL 확인 등
  * 2중으로 확인하는게 좋음.
- * TODO : 나중에 이 부분은 추후 개선하는 걸로 하고 일단 redis를 가지고 기본적인 인증된 사용자 관리하는 기능부터 작성하자...
+ * -> token:expiry Sorted Set을 주기적으로 훑는 TokenExpirySweeper를 추가했고, 처리 로직은 TokenExpirationHandler로 공유한다.
+ *
+ * onMessage는 pub/sub 스레드에서 실행되므로 여기서는 키 타입만 판별하고 실제 처리는 KeyExpirationEventDispatcher로 넘긴다.
  */
 @Slf4j
 @Component
 public class CustomKeyExpirationEventListener extends KeyExpirationEventMessageListener {
-
-    public CustomKeyExpirationEventListener(RedisMessageListenerContainer listenerContainer) {
+    private final RedisKeyGenerator keyGenerator;
+    private final KeyExpirationEventDispatcher dispatcher;
+
+    public CustomKeyExpirationEventListener(
+        RedisMessageListenerContainer listenerContainer,
+        RedisKeyGenerator keyGenerator,
+        KeyExpirationEventDispatcher dispatcher,
+        AuthRedisProperties authRedisProperties
+    ) {
         super(listenerContainer);
+        this.keyGenerator = keyGenerator;
+        this.dispatcher = dispatcher;
+        // 부모 기본값("EA")은 기동 시 공유 Redis에 CONFIG SET을 보낸다. 설정값이 비어있으면(기본) 건드리지 않고 운영 설정을 따른다.
+        setKeyspaceNotificationsConfigParameter(authRedisProperties.getNotifications().getKeyspaceEvents());
     }
 
     @Override
     public void onMessage(Message message, byte[] pattern) {
         String expiredKey = message.toString();
-        log.info("Key expired: {}", expiredKey);
+        log.debug("Key expired: {}", expiredKey);
 
-        // 키 타입에 따른 처리
-        if (expiredKey.contains("access")) {
-            handleAccessTokenExpiration(expiredKey);
-        } else if (expiredKey.contains("refresh")) {
-            handleRefreshTokenExpiration(expiredKey);
-        } else if (expiredKey.contains("session")) {
-            handleSessionExpiration(expiredKey);
+        // 키 타입(auth:{type}:...)을 정확히 잘라서 타입별 큐로 넘긴다.
+        String type = keyGenerator.typeOf(expiredKey);
+        if (type != null) {
+            dispatcher.dispatch(type, expiredKey);
         }
     }
-
-    private void handleAccessTokenExpiration(String key) {
-        // Access Token 만료 처리 로직
-        // 예시:
-        // - 사용자 강제 로그아웃 처리
-        // - 다른 서비스에 만료 알림
-        // - 감사(audit) 로그 기록
-        // - 통계 데이터 수집
-        log.info("Access token expired: {}", key);
-    }
-
-    private void handleRefreshTokenExpiration(String key) {
-        // Refresh Token 만료 처리 로직
-        // 예시:
-        // - 연관된 다른 서비스의 캐시 정리
-        // - 다른 서비스에 만료 이벤트 전파
-        log.info("Refresh token expired: {}", key);
-    }
-
-    private void handleSessionExpiration(String key) {
-        // Session 만료 처리 로직
-        // 예시:
-        // - 연결된 웹소켓 세션 정리
-        // - 사용자 상태 업데이트
-        // - 리소스 정리
-        log.info("Session expired: {}", key);
-    }
 }
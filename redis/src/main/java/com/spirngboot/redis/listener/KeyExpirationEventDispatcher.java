@@ -0,0 +1,152 @@
+package com.spirngboot.redis.listener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.handler.TokenExpirationHandler;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisConstants;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 키 만료 이벤트 비동기 디스패처
+ *
+ * 리스너의 onMessage는 RedisMessageListenerContainer 스레드에서 돌기 때문에 여기서 핸들러를 직접 실행하면
+ * 토큰이 한꺼번에 만료될 때 pub/sub 처리 전체가 밀린다. 그래서 타입(access / refresh / session)별로 bounded queue에 넣기만 하고
+ * 타입별 worker 스레드가 batch-size 만큼 모아서 핸들러로 넘긴다.
+ *
+ * 큐가 가득 차면 offer-timeout 만큼만 기다리고(backpressure) 그래도 자리가 없으면 버리고 dropped 지표를 올린다.
+ * 버려진 토큰 만료는 TokenExpirySweeper가 token:expiry Sorted Set에서 다시 잡아준다.
+ *
+ * 이벤트와 sweeper가 같은 만료를 한 번씩 처리하면 핸들러(audit 등)가 두 번 돈다. 둘은 키(memberId)와 토큰으로 서로 다른 값을 들고 있어서
+ * 같은 만료인지 맞춰볼 수 없으므로, sweeper가 켜져 있으면 access / refresh 만료는 sweeper만 처리하고 여기서는 session만 받는다.
+ */
+@Slf4j
+@Component
+public class KeyExpirationEventDispatcher {
+    private static final String METRIC_PREFIX = "auth.redis.expiration.events";
+
+    private final AuthRedisProperties.ExpirationDispatch settings;
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+    private final ExecutorService workers;
+
+    public KeyExpirationEventDispatcher(
+        TokenExpirationHandler tokenExpirationHandler,
+        AuthRedisProperties authRedisProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.settings = authRedisProperties.getExpirationDispatch();
+
+        if (!authRedisProperties.getSweeper().isEnabled()) {
+            lanes.put(RedisConstants.Prefix.ACCESS_TOKEN, new Lane(RedisConstants.Prefix.ACCESS_TOKEN, tokenExpirationHandler::handleAccessTokenExpirations, meterRegistry));
+            lanes.put(RedisConstants.Prefix.REFRESH_TOKEN, new Lane(RedisConstants.Prefix.REFRESH_TOKEN, tokenExpirationHandler::handleRefreshTokenExpirations, meterRegistry));
+        }
+        lanes.put(RedisConstants.Prefix.USER_SESSION, new Lane(RedisConstants.Prefix.USER_SESSION, tokenExpirationHandler::handleSessionExpirations, meterRegistry));
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(lanes.size(), runnable -> {
+            Thread thread = new Thread(runnable, "key-expiration-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        lanes.values().forEach(lane -> workers.execute(lane::drain));
+    }
+
+    /**
+     * 만료된 키를 타입별 큐에 넣는다. pub/sub 스레드에서 호출되므로 offer-timeout 이상 막히지 않는다.
+     * @return 큐에 들어갔으면 true, 처리 대상 타입이 아니거나 버려졌으면 false
+     */
+    public boolean dispatch(String type, String key) {
+        Lane lane = lanes.get(type);
+        if (lane == null) {
+            return false;
+        }
+        return lane.offer(key);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdownNow();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Key expiration workers did not terminate in time");
+        }
+    }
+
+    private final class Lane {
+        private final String type;
+        private final BlockingQueue<String> queue;
+        private final Consumer<List<String>> handler;
+        private final Counter dispatched;
+        private final Counter dropped;
+        private final Counter failed;
+        private final Timer batchTimer;
+
+        private Lane(String type, Consumer<List<String>> handler, MeterRegistry meterRegistry) {
+            this.type = type;
+            this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+            this.handler = handler;
+            this.dispatched = Counter.builder(METRIC_PREFIX).tag("type", type).tag("result", "dispatched").register(meterRegistry);
+            this.dropped = Counter.builder(METRIC_PREFIX).tag("type", type).tag("result", "dropped").register(meterRegistry);
+            this.failed = Counter.builder(METRIC_PREFIX).tag("type", type).tag("result", "failed").register(meterRegistry);
+            this.batchTimer = Timer.builder(METRIC_PREFIX + ".batch").tag("type", type).register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".queue", queue, BlockingQueue::size).tag("type", type).register(meterRegistry);
+        }
+
+        private boolean offer(String key) {
+            boolean accepted;
+            try {
+                accepted = queue.offer(key, settings.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+
+            if (accepted) {
+                dispatched.increment();
+            } else {
+                dropped.increment();
+                log.debug("Expiration event dropped (queue full): {}", key);
+            }
+            return accepted;
+        }
+
+        private void drain() {
+            int batchSize = settings.getBatchSize();
+            List<String> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                queue.drainTo(batch, batchSize - 1);
+
+                try {
+                    batchTimer.record(() -> handler.accept(batch));
+                } catch (RuntimeException e) {
+                    failed.increment(batch.size());
+                    log.error("Expiration handler failed for {} {} keys", batch.size(), type, e);
+                }
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.spirngboot.redis.listener;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.spirngboot.redis.cache.BlacklistBloomFilter;
+import com.spirngboot.redis.cache.BlacklistNearCache;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 토큰 폐기(블랙리스트 등록) fan-out Stream
+ *
+ * 다른 노드의 near-cache / Bloom filter는 keyspace 이벤트로 갱신되는데, pub/sub은 그 순간 연결이 끊겨 있던 노드에는 전달되지 않는다.
+ * 그래서 블랙리스트 등록 시 auth:revocation Stream에도 키를 남기고(XADD), 노드마다 자기 consumer group으로 읽어서 로컬 캐시에 반영한다.
+ * 폐기는 모든 노드가 다 받아야 하므로 노드끼리 나눠 먹는 하나의 group이 아니라 노드별 group(auth-revocation-{node-id})을 쓴다.
+ *
+ * - batch-size 만큼 XREADGROUP으로 가져와서 캐시에 반영한 뒤에 XACK 한다. (반영 전에 죽으면 pending으로 남는다)
+ * - 재시작하면 먼저 ID 0 으로 pending(받았지만 ack 못한) 엔트리를 다시 처리하고, 그 다음 group에 저장된 위치(>)부터 이어서 읽는다.
+ *   그래서 이어서 읽으려면 node-id를 재시작해도 같은 값으로 직접 설정해야 된다. (StatefulSet 이름 같은 것)
+ * - node-id를 설정하지 않으면(호스트명) 재시작 때마다 이름이 바뀔 수 있으니 정상 종료 시 자기 group을 XGROUP DESTROY 한다.
+ *   node-id를 설정한 노드의 group은 남겨두므로, 그 node-id를 더 이상 안 쓰게 되면 group을 직접 지워야 한다. (강제 종료된 노드의 group도 마찬가지)
+ * - Stream 길이는 XADD 때 MAXLEN ~ 으로 같이 자른다. (노드마다 XTRIM을 따로 보내지 않는다)
+ *   stream-max-length 보다 많이 밀린 노드는 잘린 만큼 놓치고, 그 키들은 Bloom filter rebuild / near-cache max-staleness 때 다시 맞춰진다.
+ *
+ * 캐시 반영은 near-cache put / Bloom filter add 뿐이라 같은 키를 여러 번 받아도 상관없다. (자기 노드에서 쓴 것도 그냥 다시 반영)
+ */
+@Slf4j
+@Component
+public class TokenRevocationStream {
+    public static final String KEY_FIELD = "key";
+    private static final byte[] KEY_FIELD_BYTES = KEY_FIELD.getBytes(StandardCharsets.UTF_8);
+    private static final String METRIC_PREFIX = "auth.revocation.events";
+    private static final String GROUP_PREFIX = "auth-revocation-";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final BlacklistNearCache blacklistNearCache;
+    private final BlacklistBloomFilter blacklistBloomFilter;
+    private final AuthRedisProperties.Revocation settings;
+    private final byte[] streamKey;
+    private final Consumer consumer;
+    private final boolean destroyGroupOnShutdown;
+    private final XAddOptions addOptions;
+    private final Thread subscriber;
+    private volatile boolean running = true;
+
+    private final Counter published;
+    private final Counter applied;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    public TokenRevocationStream(
+        RedisTemplate<String, Object> redisTemplate,
+        RedisKeyGenerator keyGenerator,
+        BlacklistNearCache blacklistNearCache,
+        BlacklistBloomFilter blacklistBloomFilter,
+        AuthRedisProperties authRedisProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.blacklistNearCache = blacklistNearCache;
+        this.blacklistBloomFilter = blacklistBloomFilter;
+        this.settings = authRedisProperties.getRevocation();
+        this.streamKey = keyGenerator.revocationStream().getBytes(StandardCharsets.UTF_8);
+
+        String nodeId = StringUtils.hasText(settings.getNodeId()) ? settings.getNodeId() : hostName();
+        this.consumer = Consumer.from(GROUP_PREFIX + nodeId, nodeId);
+        this.destroyGroupOnShutdown = !StringUtils.hasText(settings.getNodeId());
+        this.addOptions = addOptions(settings);
+
+        this.published = Counter.builder(METRIC_PREFIX).tag("result", "published").register(meterRegistry);
+        this.applied = Counter.builder(METRIC_PREFIX).tag("result", "applied").register(meterRegistry);
+        this.failed = Counter.builder(METRIC_PREFIX).tag("result", "failed").register(meterRegistry);
+        this.batchTimer = Timer.builder(METRIC_PREFIX + ".batch").register(meterRegistry);
+
+        if (settings.isEnabled()) {
+            this.subscriber = new Thread(this::consumeLoop, "token-revocation-subscriber");
+            this.subscriber.setDaemon(true);
+            this.subscriber.start();
+        } else {
+            this.subscriber = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    // ReactiveRedisUtil도 같은 옵션으로 XADD 한다.
+    public static XAddOptions addOptions(AuthRedisProperties.Revocation settings) {
+        return XAddOptions.maxlen(settings.getStreamMaxLength()).approximateTrimming(true);
+    }
+
+    /**
+     * 호출하는 쪽 pipeline에 XADD를 같이 쌓는다. (블랙리스트 SET과 같은 왕복으로 보내기 위함)
+     */
+    public void append(RedisConnection connection, byte[] blacklistKey) {
+        connection.streamCommands().xAdd(StreamRecords.newRecord().in(streamKey).ofMap(Map.of(KEY_FIELD_BYTES, blacklistKey)), addOptions);
+        published.increment();
+    }
+
+    // 이미 블랙리스트 SET이 끝난 키들을 pipeline 하나로 XADD 한다.
+    public void publish(Collection<String> blacklistKeys) {
+        if (!isEnabled() || blacklistKeys.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            blacklistKeys.forEach(key -> append(connection, key.getBytes(StandardCharsets.UTF_8)));
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (subscriber == null) {
+            return;
+        }
+        running = false;
+        subscriber.join(settings.getBlock().toMillis() + TimeUnit.SECONDS.toMillis(5));
+        if (subscriber.isAlive()) {
+            log.warn("Token revocation subscriber did not terminate in time");
+        }
+        if (destroyGroupOnShutdown) {
+            destroyGroup();
+        }
+    }
+
+    // 커넥션은 루프가 들고 있다가 실패하면 닫고 block 만큼 쉰 뒤 새로 연다. (다시 열 때마다 pending부터 다시 읽는다)
+    private void consumeLoop() {
+        RedisConnectionFactory connectionFactory = redisTemplate.getRequiredConnectionFactory();
+        RedisConnection connection = null;
+        boolean pending = true;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = connectionFactory.getConnection();
+                    createGroup(connection);
+                    pending = true;
+                }
+
+                List<ByteRecord> records = read(connection, pending);
+                if (records == null || records.isEmpty()) {
+                    pending = false;
+                    continue;
+                }
+                RedisConnection current = connection;
+                batchTimer.record(() -> apply(current, records));
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Token revocation stream read failed, retrying in {}", settings.getBlock(), e);
+                close(connection);
+                connection = null;
+                LockSupport.parkNanos(settings.getBlock().toNanos());
+            }
+        }
+        close(connection);
+    }
+
+    // pending은 이미 이 consumer에 전달된 엔트리라 BLOCK 없이 바로 돌아온다.
+    private List<ByteRecord> read(RedisConnection connection, boolean pending) {
+        StreamReadOptions options = StreamReadOptions.empty().count(settings.getBatchSize());
+        if (!pending) {
+            options = options.block(settings.getBlock());
+        }
+        ReadOffset offset = pending ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+        return connection.streamCommands().xReadGroup(consumer, options, StreamOffset.create(streamKey, offset));
+    }
+
+    private void apply(RedisConnection connection, List<ByteRecord> records) {
+        List<RecordId> ids = new ArrayList<>(records.size());
+        for (ByteRecord record : records) {
+            // pending 상태에서 MAXLEN으로 본문이 잘린 엔트리는 값이 비어있다. ack만 한다.
+            String key = blacklistKey(record.getValue());
+            if (key != null) {
+                blacklistNearCache.put(key, true);
+                blacklistBloomFilter.add(key);
+            }
+            ids.add(record.getId());
+        }
+
+        connection.streamCommands().xAck(streamKey, consumer.getGroup(), ids.toArray(new RecordId[0]));
+        applied.increment(ids.size());
+    }
+
+    private void createGroup(RedisConnection connection) {
+        try {
+            // 처음 만드는 group은 지금부터 들어오는 폐기만 받는다. 그 전 블랙리스트는 Bloom filter 초기 SCAN이 잡는다.
+            connection.streamCommands().xGroupCreate(streamKey, consumer.getGroup(), ReadOffset.latest(), true);
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    // 종료 중이라 실패해도 로그만 남긴다. 남은 group은 다음 정상 종료 때가 아니면 직접 지워야 한다.
+    private void destroyGroup() {
+        try {
+            redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.streamCommands().xGroupDestroy(streamKey, consumer.getGroup()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to destroy revocation consumer group {}", consumer.getGroup(), e);
+        }
+    }
+
+    private static String blacklistKey(Map<byte[], byte[]> fields) {
+        if (fields == null) {
+            return null;
+        }
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            if (Arrays.equals(field.getKey(), KEY_FIELD_BYTES)) {
+                return new String(field.getValue(), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void close(RedisConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (RuntimeException e) {
+            log.debug("Failed to close revocation stream connection", e);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            String nodeId = UUID.randomUUID().toString();
+            log.warn("Cannot resolve host name, using random revocation node id {} (pending entries will not be replayed after restart)", nodeId);
+            return nodeId;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.spirngboot.redis.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.settings.AuthRedisProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * RedisUtil 작업 단위 계측
+ *
+ * Lettuce 명령 지연(lettuce.command.*)은 GET, SET 같은 명령 단위라서 어떤 기능이 p99를 끌어올리는지는 알 수 없다.
+ * 여기서는 refreshToken.get, blacklist.check 처럼 논리적인 작업 이름으로 태그를 붙인다. (키를 태그로 쓰면 시계열이 폭발한다)
+ * 로컬 캐시에서 끝나는 경우도 포함한 작업 전체 시간이므로 Lettuce 명령 지연과 같이 보면 네트워크 / 로컬 비중을 나눠볼 수 있다.
+ *
+ * - auth.redis.operation{operation} : 작업 시간 (percentile histogram)
+ * - auth.redis.operation.errors{operation} : 예외로 끝난 작업 수
+ * - slow-threshold 이상 걸린 작업은 키와 같이 WARN 로그를 남긴다. (slow log)
+ */
+@Slf4j
+@Component
+public class RedisOperationMetrics {
+    private static final String TIMER_NAME = "auth.redis.operation";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean percentileHistogram;
+    private final long slowThresholdNanos;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+
+    public RedisOperationMetrics(AuthRedisProperties authRedisProperties, MeterRegistry meterRegistry) {
+        AuthRedisProperties.Metrics settings = authRedisProperties.getMetrics();
+        this.meterRegistry = meterRegistry;
+        this.percentileHistogram = settings.isPercentileHistogram();
+        this.slowThresholdNanos = settings.getSlowThreshold().toNanos();
+    }
+
+    /**
+     * @param operation 논리 작업 이름 (태그)
+     * @param key slow log에 남길 키 (여러 키를 다루는 작업은 대표 키나 건수)
+     */
+    public <T> T record(String operation, Object key, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            errors.computeIfAbsent(operation, this::errorCounter).increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timers.computeIfAbsent(operation, this::timer).record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed >= slowThresholdNanos) {
+                log.warn("Slow redis operation: {} key={} ({} ms)", operation, key, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+
+    // 반환값이 없는 작업
+    public void run(String operation, Object key, Runnable call) {
+        record(operation, key, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder(TIMER_NAME)
+            .tag("operation", operation)
+            .publishPercentileHistogram(percentileHistogram)
+            .register(meterRegistry);
+    }
+
+    private Counter errorCounter(String operation) {
+        return Counter.builder(TIMER_NAME + ".errors")
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+}
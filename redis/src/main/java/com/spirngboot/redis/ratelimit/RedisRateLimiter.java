@@ -0,0 +1,198 @@
+package com.spirngboot.redis.ratelimit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 인증 엔드포인트용 분산 rate limiter
+ *
+ * websocket 모듈의 limiter는 세션 단위 메모리라서 여러 노드에 퍼진 refresh token 폭주는 막지 못한다.
+ * 여기서는 버킷을 redis에 두고(token-bucket.lua) 클러스터 전체에 하나의 한도를 적용한다.
+ *
+ * 로컬 선점 (pre-aggregation)
+ * - redis에 한 번 갈 때 local-batch 만큼 허용량을 받아와서 lease-ttl 동안 로컬(AtomicInteger)에서 나눠 쓴다.
+ *   그래서 요청 local-batch 건당 redis 왕복은 한 번이다.
+ * - 거부된 경우도 다음 토큰이 찰 때까지(최대 lease-ttl) 로컬에서 바로 거부한다. 폭주 상황에서 거부 요청이 redis까지 가지 않는다.
+ * - 받아온 허용량을 다 못 쓰고 lease가 끝나면 버려지므로 실제 허용량은 한도보다 조금 적을 수 있다. (넘치지는 않는다)
+ *   한도가 작은 limit은 local-batch를 1로 두자.
+ * - 같은 키로 동시에 lease가 필요해지면 한 요청만 redis에 가고(in-flight future) 나머지는 그 결과를 기다린다.
+ *   redis 호출은 캐시 compute 밖에서 하므로 다른 키를 막지 않는다.
+ *   기다린 요청끼리 받아온 허용량을 다 써버렸으면 redis가 거부할 때까지 다시 받아온다. (redis에 토큰이 남아있는데 거부하지 않도록)
+ *
+ * redis 장애 시에는 fail-open 설정에 따라 통과 / 거부한다.
+ */
+@Slf4j
+@Component
+public class RedisRateLimiter {
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/token-bucket.lua"), Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final AuthRedisProperties.RateLimit settings;
+    private final MeterRegistry meterRegistry;
+    private final long leaseTtlNanos;
+    private final Cache<String, Lease> leases;
+    private final Map<String, CompletableFuture<Lease>> inFlight = new ConcurrentHashMap<>();
+
+    public RedisRateLimiter(
+        RedisTemplate<String, Object> redisTemplate,
+        RedisKeyGenerator keyGenerator,
+        AuthRedisProperties authRedisProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.keyGenerator = keyGenerator;
+        this.settings = authRedisProperties.getRateLimit();
+        this.meterRegistry = meterRegistry;
+        this.leaseTtlNanos = settings.getLeaseTtl().toNanos();
+        this.leases = Caffeine.newBuilder()
+            .maximumSize(settings.getMaximumLocalKeys())
+            .expireAfterWrite(settings.getLeaseTtl())
+            .build();
+    }
+
+    /**
+     * @param limitName 설정의 limit 이름 (예: refresh)
+     * @param identity 한도를 적용할 대상 (memberId, IP ...)
+     * @return 허용이면 true
+     */
+    public boolean tryAcquire(String limitName, String identity) {
+        AuthRedisProperties.RateLimit.Limit limit = settings.getLimits().get(limitName);
+        if (limit == null) {
+            throw new IllegalArgumentException("Unknown rate limit: " + limitName);
+        }
+
+        String key = keyGenerator.rateLimit(limitName, identity);
+        Lease lease = leases.getIfPresent(key);
+        if (lease != null && lease.isUsable(System.nanoTime())) {
+            if (lease.denied) {
+                return record(limitName, "local", false);
+            }
+            if (lease.tryAcquire()) {
+                return record(limitName, "local", true);
+            }
+            // 확인과 사용 사이에 다른 스레드가 마지막 허용량을 가져간 경우 -> redis에서 다시 받아온다.
+        }
+
+        // 받아온 lease를 다른 요청이 먼저 다 쓴 경우 다시 받는다. redis 버킷이 비면 거부 lease가 오므로 끝난다. (fail-open은 허용량 무제한)
+        while (true) {
+            Lease renewed = renew(key, limit);
+            if (renewed.denied) {
+                return record(limitName, "redis", false);
+            }
+            if (renewed.tryAcquire()) {
+                return record(limitName, "redis", true);
+            }
+        }
+    }
+
+    // 키마다 redis 호출은 하나만, 나머지는 그 결과를 기다린다. 기다리는 동안 다른 요청이 새 lease를 넣어뒀으면 redis에 가지 않는다.
+    private Lease renew(String key, AuthRedisProperties.RateLimit.Limit limit) {
+        CompletableFuture<Lease> pending = new CompletableFuture<>();
+        CompletableFuture<Lease> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            long now = System.nanoTime();
+            Lease current = leases.getIfPresent(key);
+            Lease renewed = current != null && current.isUsable(now) ? current : lease(key, limit, now);
+            leases.put(key, renewed);
+            pending.complete(renewed);
+            return renewed;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private Lease lease(String key, AuthRedisProperties.RateLimit.Limit limit, long now) {
+        long granted;
+        try {
+            Long reply = redisTemplate.execute(
+                TOKEN_BUCKET_SCRIPT,
+                RedisSerializer.string(),
+                new GenericToStringSerializer<>(Long.class),
+                List.of(key),
+                String.valueOf(limit.getCapacity()),
+                String.valueOf(limit.getRefillPerSecond()),
+                String.valueOf(Math.max(1, limit.getLocalBatch()))
+            );
+            granted = reply == null ? 0 : reply;
+        } catch (DataAccessException e) {
+            // 장애 중에 요청마다 redis 타임아웃을 기다리지 않도록 lease-ttl 동안은 결과를 로컬에서 재사용한다.
+            log.warn("Rate limit check failed, fail-open={}: {}", settings.isFailOpen(), key, e);
+            return new Lease(settings.isFailOpen() ? Integer.MAX_VALUE : 0, now + leaseTtlNanos, !settings.isFailOpen());
+        }
+
+        if (granted > 0) {
+            return new Lease((int) granted, now + leaseTtlNanos, false);
+        }
+        // 거부 : 토큰 하나가 다시 찰 때까지만 로컬에서 거부한다. (lease-ttl보다 길게 잡지는 않음)
+        long refillNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRefillPerSecond());
+        return new Lease(0, now + Math.min(leaseTtlNanos, refillNanos), true);
+    }
+
+    private boolean record(String limitName, String source, boolean allowed) {
+        meterRegistry.counter("auth.rate-limit.decisions",
+            "limit", limitName,
+            "source", source,
+            "result", allowed ? "allowed" : "denied").increment();
+        return allowed;
+    }
+
+    /**
+     * redis에서 받아온 허용량
+     * denied면 허용량 없이 만료 시각까지 거부 결과를 재사용하고, 아니면 허용량이 남아있는 동안만 쓸 수 있다.
+     */
+    private static final class Lease {
+        private final AtomicInteger remaining;
+        private final long expiresAt;
+        private final boolean denied;
+
+        private Lease(int permits, long expiresAt, boolean denied) {
+            this.remaining = new AtomicInteger(permits);
+            this.expiresAt = expiresAt;
+            this.denied = denied;
+        }
+
+        private boolean isUsable(long now) {
+            return now - expiresAt < 0 && (denied || remaining.get() > 0);
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                int current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
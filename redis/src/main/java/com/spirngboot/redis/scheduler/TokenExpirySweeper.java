@@ -0,0 +1,140 @@
+package com.spirngboot.redis.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.dto.TokenType;
+import com.spirngboot.redis.handler.TokenExpirationHandler;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+import com.spirngboot.redis.utils.RedisConstants;
+import com.spirngboot.redis.utils.RedisKeyGenerator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * token:expiry Sorted Set 기반 만료 sweeper
+ *
+ * 키 만료 이벤트는 best-effort 라서 놓칠 수 있다. 그래서 addTokenWithExpiry로 쌓아둔 Sorted Set을 주기적으로 훑어서
+ * score(만료 시각)가 지난 멤버를 같은 TokenExpirationHandler로 넘긴다. KEYS 전체 스캔 없이 만료된 것만 ZRANGEBYSCORE로 가져온다.
+ *
+ * 여러 인스턴스 간 조율
+ * - claim-expired-tokens.lua가 ZRANGEBYSCORE + ZREM을 원자적으로 수행하므로 한 멤버는 한 인스턴스만 가져간다.
+ * - 가져간 멤버는 processing Sorted Set에 lease 만료 시각으로 옮겨두고, 처리에 성공하면 ack(ZREM) 한다.
+ * - 처리 도중 인스턴스가 죽으면 lease가 지난 뒤 reclaim-token-leases.lua가 다시 token:expiry로 돌려보낸다.
+ * 즉 claim은 정확히 한번이고, 장애 시에는 재처리될 수 있으므로 핸들러는 멱등하게 작성해야 된다.
+ *
+ * 멤버에는 토큰 원문이 들어있다. 핸들러에는 토큰 대신 digest(RedisKeyGenerator.tokenDigest)를 넘기고, 로그에도 타입과 digest만 남긴다.
+ * sweeper가 켜져 있으면 access / refresh 만료는 sweeper만 처리한다. (키 만료 이벤트 쪽은 KeyExpirationEventDispatcher에서 건너뜀)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "auth.redis.sweeper", name = "enabled", havingValue = "true")
+public class TokenExpirySweeper {
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/claim-expired-tokens.lua"), List.class);
+    private static final RedisScript<Long> RECLAIM_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/reclaim-token-leases.lua"), Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final TokenExpirationHandler tokenExpirationHandler;
+    private final AuthRedisProperties authRedisProperties;
+
+    @Scheduled(fixedDelayString = "${auth.redis.sweeper.interval:5s}")
+    public void sweep() {
+        AuthRedisProperties.Sweeper settings = authRedisProperties.getSweeper();
+        long now = System.currentTimeMillis();
+
+        reclaimExpiredLeases(now, settings.getChunkSize());
+
+        // 한 주기에 처리할 양을 chunk 수로 제한해서 만료 폭주 시에도 한 번의 실행 시간이 길어지지 않도록 한다.
+        for (int chunk = 0; chunk < settings.getMaxChunksPerRun(); chunk++) {
+            List<Object> claimed = claim(now, settings);
+            if (claimed.isEmpty()) {
+                break;
+            }
+
+            List<Object> processed = new ArrayList<>(claimed.size());
+            for (Object member : claimed) {
+                if (dispatch(String.valueOf(member))) {
+                    processed.add(member);
+                }
+            }
+            if (!processed.isEmpty()) {
+                redisTemplate.opsForZSet().remove(keyGenerator.tokenExpiryProcessing(), processed.toArray());
+            }
+
+            if (claimed.size() < settings.getChunkSize()) {
+                break;
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Object> claim(long now, AuthRedisProperties.Sweeper settings) {
+        List<Object> claimed = redisTemplate.execute(
+            CLAIM_SCRIPT,
+            RedisSerializer.string(),
+            (RedisSerializer<List>) redisTemplate.getValueSerializer(),
+            List.of(keyGenerator.tokenExpiry(), keyGenerator.tokenExpiryProcessing()),
+            String.valueOf(now),
+            String.valueOf(settings.getChunkSize()),
+            String.valueOf(now + settings.getLease().toMillis())
+        );
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void reclaimExpiredLeases(long now, int limit) {
+        Long reclaimed = redisTemplate.execute(
+            RECLAIM_SCRIPT,
+            RedisSerializer.string(),
+            new GenericToStringSerializer<>(Long.class),
+            List.of(keyGenerator.tokenExpiryProcessing(), keyGenerator.tokenExpiry()),
+            String.valueOf(now),
+            String.valueOf(limit)
+        );
+        if (reclaimed != null && reclaimed > 0) {
+            log.warn("Reclaimed {} token expiry entries with expired lease", reclaimed);
+        }
+    }
+
+    /**
+     * 멤버("{TokenType}:{token}")를 타입별 핸들러로 넘긴다. 핸들러와 로그에는 토큰 digest만 넘긴다.
+     * 처리에 실패하면 false를 돌려줘서 ack 하지 않고, lease 만료 후 다시 처리되도록 한다.
+     */
+    private boolean dispatch(String member) {
+        int index = member.indexOf(RedisConstants.DELIMITER);
+        if (index < 0) {
+            log.warn("Dropping token expiry entry without type: {}", keyGenerator.tokenDigest(member));
+            return true;
+        }
+
+        String type = member.substring(0, index);
+        String digest = keyGenerator.tokenDigest(member.substring(index + RedisConstants.DELIMITER.length()));
+        try {
+            if (TokenType.ACCESS.name().equals(type)) {
+                tokenExpirationHandler.handleAccessTokenExpiration(digest);
+            } else if (TokenType.REFRESH.name().equals(type)) {
+                tokenExpirationHandler.handleRefreshTokenExpiration(digest);
+            } else {
+                log.warn("Dropping token expiry entry with unknown type: {} {}", type, digest);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Token expiry handling failed, will retry after lease: {} {}", type, digest, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.spirngboot.redis.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.spirngboot.redis.domain.RefreshToken;
+import com.spirngboot.redis.dto.TokenBlacklist;
+import com.spirngboot.redis.dto.TokenExpiry;
+import com.spirngboot.redis.dto.TokenType;
+
+/**
+ * 토큰 객체 전용 compact 바이너리 직렬화
+ *
+ * GenericJackson2JsonRedisSerializer + activateDefaultTyping(NON_FINAL) 조합은 값마다 전체 클래스명과 ISO 날짜 문자열이 붙는다.
+ * 인증 hot path에서 가장 많이 오가는 RefreshToken, TokenBlacklist, TokenExpiry만 직접 작성한 바이너리 포맷으로 저장하고
+ * 나머지 타입(role 멤버 문자열, hash 값 등)은 그대로 JSON 직렬화기에 위임한다.
+ *
+ * 포맷 : [MAGIC 1byte][VERSION 1byte][TYPE 1byte][필드들...]
+ * - 문자열은 varint(길이 + 1) + UTF-8 바이트, 길이 0은 null
+ * - nullable 숫자/날짜는 존재 여부 1byte + 값
+ * - LocalDateTime은 epochSecond(long) + nano(int), 존(zone) 변환 없이 필드 값 그대로 저장
+ *
+ * MAGIC(0xB1)은 UTF-8의 첫 바이트로 올 수 없는 값이라 JSON 값({, ", [ 로 시작)과 겹치지 않는다.
+ * 그래서 읽을 때는 항상 두 포맷을 다 읽을 수 있고, 쓰기 포맷만 설정(write-compact)으로 고른다.
+ * 롤아웃 순서 : 전 노드에 이 직렬화기를 JSON 쓰기 모드로 배포 -> compact 쓰기로 전환. 롤백도 같은 순서를 거꾸로 하면 된다.
+ * 필드를 추가/변경할 때는 VERSION을 올리고 이전 버전 디코딩을 남겨둘 것.
+ */
+public class CompactTokenRedisSerializer implements RedisSerializer<Object> {
+    static final byte MAGIC = (byte) 0xB1;
+    static final byte VERSION = 1;
+
+    private static final byte TYPE_REFRESH_TOKEN = 1;
+    private static final byte TYPE_TOKEN_BLACKLIST = 2;
+    private static final byte TYPE_TOKEN_EXPIRY = 3;
+
+    private final RedisSerializer<Object> fallback;
+    private final boolean writeCompact;
+
+    public CompactTokenRedisSerializer(RedisSerializer<Object> fallback, boolean writeCompact) {
+        this.fallback = fallback;
+        this.writeCompact = writeCompact;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (!writeCompact) {
+            return fallback.serialize(value);
+        }
+
+        try {
+            if (value instanceof RefreshToken refreshToken) {
+                return encodeRefreshToken(refreshToken);
+            }
+            if (value instanceof TokenBlacklist blacklist) {
+                return encodeTokenBlacklist(blacklist);
+            }
+            if (value instanceof TokenExpiry tokenExpiry) {
+                return encodeTokenExpiry(tokenExpiry);
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not write compact value", e);
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new SerializationException("Unsupported compact value version: " + version);
+            }
+
+            byte type = buffer.get();
+            return switch (type) {
+                case TYPE_REFRESH_TOKEN -> RefreshToken.builder()
+                    .memberId(readString(buffer))
+                    .refreshToken(readString(buffer))
+                    .expiration(readNullableLong(buffer))
+                    .build();
+                case TYPE_TOKEN_BLACKLIST -> TokenBlacklist.builder()
+                    .token(readString(buffer))
+                    .expirationTime(readNullableLong(buffer))
+                    .blacklistedAt(readNullableDateTime(buffer))
+                    .build();
+                case TYPE_TOKEN_EXPIRY -> TokenExpiry.builder()
+                    .token(readString(buffer))
+                    .expiryTime(buffer.getLong())
+                    .tokenType(readTokenType(buffer))
+                    .build();
+                default -> throw new SerializationException("Unknown compact value type: " + type);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated compact value", e);
+        }
+    }
+
+    // ------------------------------------------------------------
+
+    private byte[] encodeRefreshToken(RefreshToken refreshToken) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = header(bytes, TYPE_REFRESH_TOKEN);
+        writeString(out, refreshToken.getMemberId());
+        writeString(out, refreshToken.getRefreshToken());
+        writeNullableLong(out, refreshToken.getExpiration());
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeTokenBlacklist(TokenBlacklist blacklist) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = header(bytes, TYPE_TOKEN_BLACKLIST);
+        writeString(out, blacklist.getToken());
+        writeNullableLong(out, blacklist.getExpirationTime());
+        writeNullableDateTime(out, blacklist.getBlacklistedAt());
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeTokenExpiry(TokenExpiry tokenExpiry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = header(bytes, TYPE_TOKEN_EXPIRY);
+        writeString(out, tokenExpiry.getToken());
+        out.writeLong(tokenExpiry.getExpiryTime());
+        writeString(out, tokenExpiry.getTokenType() == null ? null : tokenExpiry.getTokenType().name());
+        return bytes.toByteArray();
+    }
+
+    private DataOutputStream header(ByteArrayOutputStream bytes, byte type) throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(type);
+        return out;
+    }
+
+    // ------------------------------------------------------------
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf8.length + 1);
+        out.write(utf8);
+    }
+
+    // 길이가 남은 바이트보다 크면 new String이 StringIndexOutOfBoundsException을 던지므로 먼저 확인한다.
+    private static String readString(ByteBuffer buffer) {
+        int encoded = readVarInt(buffer);
+        if (encoded < 0) {
+            throw new SerializationException("Malformed string length in compact value");
+        }
+        int length = encoded - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new SerializationException("Truncated compact value");
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : buffer.getLong();
+    }
+
+    private static void writeNullableDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readNullableDateTime(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    private static TokenType readTokenType(ByteBuffer buffer) {
+        String name = readString(buffer);
+        return name == null ? null : TokenType.valueOf(name);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 28) {
+                throw new SerializationException("Malformed varint in compact value");
+            }
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
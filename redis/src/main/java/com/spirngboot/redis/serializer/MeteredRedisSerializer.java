@@ -0,0 +1,59 @@
+package com.spirngboot.redis.serializer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * payload 크기 계측 직렬화기
+ *
+ * 실제 직렬화는 delegate에 맡기고, 직렬화된 바이트 수를 auth.redis.payload{direction, type} 분포로 기록한다.
+ * 어떤 타입이 큰 값을 주고받는지(예: RefreshToken JSON vs COMPACT) 보기 위한 용도라 type 태그는 값의 클래스 이름이다.
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+    private static final String METRIC_NAME = "auth.redis.payload";
+
+    private final RedisSerializer<Object> delegate;
+    private final MeterRegistry meterRegistry;
+    private final boolean percentileHistogram;
+    private final Map<Class<?>, DistributionSummary> writes = new ConcurrentHashMap<>();
+    private final Map<Class<?>, DistributionSummary> reads = new ConcurrentHashMap<>();
+
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, MeterRegistry meterRegistry, boolean percentileHistogram) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (value != null && bytes != null) {
+            writes.computeIfAbsent(value.getClass(), type -> summary("write", type)).record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        Object value = delegate.deserialize(bytes);
+        if (value != null && bytes != null) {
+            reads.computeIfAbsent(value.getClass(), type -> summary("read", type)).record(bytes.length);
+        }
+        return value;
+    }
+
+    private DistributionSummary summary(String direction, Class<?> type) {
+        return DistributionSummary.builder(METRIC_NAME)
+            .baseUnit("bytes")
+            .tag("direction", direction)
+            .tag("type", type.getSimpleName())
+            .publishPercentileHistogram(percentileHistogram)
+            .register(meterRegistry);
+    }
+}
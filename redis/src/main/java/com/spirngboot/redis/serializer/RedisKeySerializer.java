@@ -0,0 +1,35 @@
+package com.spirngboot.redis.serializer;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.spirngboot.redis.utils.RedisKeyEncoder;
+
+/**
+ * 키 / Hash 필드용 String 직렬화기 (StringRedisSerializer 대체)
+ *
+ * 결과는 StringRedisSerializer.UTF_8과 바이트 단위로 같다. 인코딩만 RedisKeyEncoder로 해서 키 하나당 할당을 결과 배열 하나로 줄인다.
+ * 상태가 없으므로 INSTANCE 하나를 공유한다.
+ */
+public final class RedisKeySerializer implements RedisSerializer<String> {
+    public static final RedisKeySerializer INSTANCE = new RedisKeySerializer();
+
+    private RedisKeySerializer() {
+    }
+
+    @Override
+    public byte[] serialize(String value) {
+        return value == null ? null : RedisKeyEncoder.encode(value);
+    }
+
+    @Override
+    public String deserialize(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return String.class;
+    }
+}
@@ -0,0 +1,245 @@
+package com.spirngboot.redis.settings;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import com.spirngboot.redis.utils.RedisConstants;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "auth.redis")
+@Configuration
+public class AuthRedisProperties {
+    // Redis 토폴로지 설정
+    private final Topology topology = new Topology();
+
+    // Redis 키 이벤트 알림(notify-keyspace-events) 설정
+    private final Notifications notifications = new Notifications();
+
+    // 블랙리스트 near-cache 설정
+    private final NearCache nearCache = new NearCache();
+
+    // 블랙리스트 Bloom filter 사전 필터 설정
+    private final BloomFilter bloomFilter = new BloomFilter();
+
+    // pipeline Bulk 작업 설정
+    private final Bulk bulk = new Bulk();
+
+    // 값 직렬화 설정
+    private final Serialization serialization = new Serialization();
+
+    // token:expiry Sorted Set 만료 sweeper 설정
+    private final Sweeper sweeper = new Sweeper();
+
+    // 키 만료 이벤트 비동기 처리 설정
+    private final ExpirationDispatch expirationDispatch = new ExpirationDispatch();
+
+    // 블랙리스트 저장 레이아웃 설정
+    private final BlacklistStorage blacklistStorage = new BlacklistStorage();
+
+    // 숫자 memberId용 Role 비트맵 설정
+    private final RoleBitmap roleBitmap = new RoleBitmap();
+
+    // Redis 지연 / 명령 계측 설정
+    private final Metrics metrics = new Metrics();
+
+    // userSession Hash 저장소 설정
+    private final Session session = new Session();
+
+    // 인증 엔드포인트 분산 rate limit 설정
+    private final RateLimit rateLimit = new RateLimit();
+
+    // 토큰 lifecycle audit write-behind 설정
+    private final Audit audit = new Audit();
+
+    // 토큰 폐기(블랙리스트) Stream fan-out 설정
+    private final Revocation revocation = new Revocation();
+
+    // 기동 시 readiness 전에 돌리는 warm-up 설정
+    private final WarmUp warmUp = new WarmUp();
+
+    @Getter
+    @Setter
+    public static class Topology {
+        private Mode mode = Mode.STANDALONE;
+        private String readFrom = "replicaPreferred";           // Lettuce ReadFrom 이름 (standalone 외 모드에서만 적용)
+        private List<String> replicaNodes = new ArrayList<>();  // standalone-replicas 모드의 replica 목록 (host:port)
+        private Duration clusterRefreshPeriod = Duration.ofSeconds(30);
+        private int ioThreads = 0;                              // 0이면 코어 수
+        private int computationThreads = 0;                     // 0이면 코어 수
+        private boolean hashTagKeys = false;                    // 회원 단위 키를 {memberId} 해시 태그로 묶음 (클러스터용)
+
+        // sentinel / cluster 노드 정보는 spring.data.redis.sentinel / cluster 설정을 그대로 사용한다.
+        public enum Mode {
+            STANDALONE, STANDALONE_REPLICAS, SENTINEL, CLUSTER
+        }
+    }
+
+    /**
+     * 비어있으면(기본) CONFIG SET을 하지 않는다. notify-keyspace-events는 Redis 전체(모든 키, 모든 클라이언트)에 걸리는 설정이라 운영에서 관리한다.
+     * 이 모듈에 필요한 최소 값은 "E$gx" (keyevent 채널의 set / del / expired), managed Redis처럼 CONFIG가 막힌 곳에서는 비워두고 서버 쪽에서 켜자.
+     */
+    @Getter
+    @Setter
+    public static class Notifications {
+        private String keyspaceEvents = "";
+    }
+
+    @Getter
+    @Setter
+    public static class NearCache {
+        private boolean enabled = false;
+        private long maximumSize = 100_000;                     // 로컬에 들고 있을 최대 엔트리 수
+        private Duration maxStaleness = Duration.ofSeconds(5);  // 이벤트를 놓쳤을 때 허용되는 최대 지연
+    }
+
+    @Getter
+    @Setter
+    public static class BloomFilter {
+        private boolean enabled = false;
+        private long expectedInsertions = 1_000_000;            // 예상 블랙리스트 토큰 수
+        private double falsePositiveRate = 0.01;                // 목표 오탐률
+        private Duration rebuildInterval = Duration.ofSeconds(RedisConstants.TTL.BLACKLIST); // 필터 교체 주기 (@Scheduled에서 직접 참조)
+        private int scanCount = 1000;                           // rebuild 시 SCAN COUNT
+        private Duration eventCheckInterval = Duration.ofSeconds(1); // 이벤트 구독 상태 확인 주기 (@Scheduled에서 직접 참조)
+    }
+
+    @Getter
+    @Setter
+    public static class Bulk {
+        private int batchSize = 1000;   // pipeline 한번에 보낼 명령 수
+    }
+
+    @Getter
+    @Setter
+    public static class Serialization {
+        // 읽기는 항상 JSON / COMPACT 둘 다 가능, 쓰기 포맷만 고른다.
+        private Format format = Format.JSON;
+
+        public enum Format {
+            JSON, COMPACT
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Sweeper {
+        private boolean enabled = false;                        // 켜면 access / refresh 만료 처리는 sweeper만 한다 (키 만료 이벤트는 session만)
+        private Duration interval = Duration.ofSeconds(5);     // 실행 주기 (@Scheduled에서 직접 참조)
+        private int chunkSize = 500;                            // Lua 스크립트 한번에 꺼낼 최대 개수
+        private int maxChunksPerRun = 20;                       // 한 주기에 처리할 최대 chunk 수
+        private Duration lease = Duration.ofSeconds(30);       // ack 없이 이 시간이 지나면 다시 처리 대상으로 돌려보냄
+    }
+
+    @Getter
+    @Setter
+    public static class ExpirationDispatch {
+        private int queueCapacity = 10_000;                     // 타입별 대기 큐 크기
+        private int batchSize = 100;                            // 핸들러에 한번에 넘길 최대 개수
+        private Duration offerTimeout = Duration.ZERO;         // 큐가 가득 찼을 때 pub/sub 스레드가 기다릴 최대 시간, 지나면 버림
+    }
+
+    @Getter
+    @Setter
+    public static class BlacklistStorage {
+        // TOKEN : auth:blacklist:{JWT 전체} + TokenBlacklist JSON (기존)
+        // DIGEST : auth:blacklist:{SHA-256 base64url 43자} + 등록 시각(ms) 숫자 하나
+        private Layout layout = Layout.TOKEN;
+        private boolean readLegacy = false;                     // DIGEST 전환 후 마이그레이션이 끝날 때까지 기존 키도 같이 조회
+        private int scanCount = 1000;                           // 마이그레이션 / 리포트 SCAN COUNT
+        private int reportSampleSize = 1000;                    // 메모리 리포트에서 레이아웃별로 MEMORY USAGE를 재볼 키 수
+
+        public enum Layout {
+            TOKEN, DIGEST
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class RoleBitmap {
+        private Duration refreshInterval = Duration.ofSeconds(1);  // 로컬 스냅샷 증분 갱신 주기 (@Scheduled에서 직접 참조)
+        private long changeLogMaxLength = 100_000;              // 변경 로그 Stream 최대 길이 (XADD MAXLEN ~)
+        private int refreshBatchSize = 1000;                    // 증분 갱신 시 XRANGE COUNT
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+        private Duration slowThreshold = Duration.ofMillis(10);    // 이 시간 이상 걸린 작업은 키와 같이 WARN 로그
+        private boolean percentileHistogram = true;             // 작업 / 명령 타이머에 히스토그램 버킷 발행 (p99 집계용)
+    }
+
+    @Getter
+    @Setter
+    public static class Session {
+        private boolean l1Enabled = false;
+        private long l1MaximumSize = 10_000;                    // 로컬에 들고 있을 최대 세션 수
+        private Duration l1Ttl = Duration.ofSeconds(2);         // 다른 노드의 변경을 늦게 볼 수 있는 최대 시간
+        private Duration touchInterval = Duration.ofSeconds(60); // 조회 시 만료 연장(EXPIRE)을 다시 보내기까지의 최소 간격
+        private long touchMaximumSize = 100_000;                // 마지막 연장 시각을 기억할 최대 세션 수 (L1과 별개로 항상 사용)
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private boolean failOpen = true;                        // redis 장애 시 통과시킬지 (false면 거부)
+        private Duration leaseTtl = Duration.ofMillis(200);     // 로컬로 받아온 허용량을 쓸 수 있는 최대 시간
+        private long maximumLocalKeys = 100_000;                // 로컬에 들고 있을 최대 (limit, 식별자) 수
+        private Map<String, Limit> limits = new HashMap<>();    // limit 이름별 설정 (예: refresh)
+
+        @Getter
+        @Setter
+        public static class Limit {
+            private long capacity = 10;                         // 버킷 크기 (순간 최대 허용량)
+            private double refillPerSecond = 1;                 // 초당 채워지는 양 (0보다 커야 한다)
+            private int localBatch = 1;                         // redis 왕복 한 번에 받아올 허용량 (1이면 요청마다 redis 확인)
+
+            // token-bucket.lua와 로컬 거부 시간이 1 / refillPerSecond 로 계산하므로 기동 시(바인딩) 바로 막는다.
+            public void setRefillPerSecond(double refillPerSecond) {
+                if (!(refillPerSecond > 0)) {
+                    throw new IllegalArgumentException("refill-per-second must be > 0: " + refillPerSecond);
+                }
+                this.refillPerSecond = refillPerSecond;
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Audit {
+        private boolean enabled = false;
+        private int bufferCapacity = 65_536;                    // ring buffer 크기 (2의 거듭제곱으로 올림), 가득 차면 버림
+        private int batchSize = 500;                            // XADD pipeline 한번에 보낼 이벤트 수
+        private Duration flushInterval = Duration.ofMillis(200); // 버퍼가 비었을 때 다음 flush까지 대기 시간
+        private long streamMaxLength = 1_000_000;               // audit Stream 최대 길이 (XADD MAXLEN ~)
+    }
+
+    @Getter
+    @Setter
+    public static class Revocation {
+        private boolean enabled = false;
+        private String nodeId = "";                             // consumer group 이름에 쓰는 노드 식별자, 비어있으면 호스트명 (이때는 정상 종료 시 group을 지운다)
+        private int batchSize = 100;                            // XREADGROUP COUNT
+        private Duration block = Duration.ofSeconds(1);         // XREADGROUP BLOCK, 실패 후 재시도 대기 시간으로도 쓴다
+        private long streamMaxLength = 100_000;                 // 폐기 Stream 최대 길이 (XADD MAXLEN ~)
+    }
+
+    @Getter
+    @Setter
+    public static class WarmUp {
+        private boolean enabled = false;
+        private Duration budget = Duration.ofSeconds(10);       // 이 시간이 지나면 warm-up을 기다리지 않고 readiness로 넘어간다 (남은 작업은 백그라운드)
+        private int connectionChecks = 10;                      // 템플릿별 PING 횟수
+        private int serializerIterations = 10_000;              // 직렬화 / 키 생성 반복 횟수 (JIT)
+        private int scanCount = 1000;                           // role 비트맵 SCAN COUNT
+    }
+}
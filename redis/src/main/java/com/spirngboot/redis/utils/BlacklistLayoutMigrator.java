@@ -0,0 +1,168 @@
+package com.spirngboot.redis.utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.config.RedisConfig;
+import com.spirngboot.redis.dto.BlacklistMemoryReport;
+import com.spirngboot.redis.dto.TokenBlacklist;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 블랙리스트 레이아웃 마이그레이션 / 메모리 리포트
+ *
+ * TOKEN 레이아웃은 키에 JWT 전체가 들어가고 값(TokenBlacklist JSON)에 토큰이 한번 더 들어가서 엔트리 하나가 1KB 가까이 된다.
+ * DIGEST 레이아웃은 키가 43자로 고정되고 값은 등록 시각 숫자 하나라 엔트리 크기가 몇 분의 일로 줄어든다.
+ *
+ * 전환 순서
+ * 1. layout: digest, read-legacy: true 로 배포 (새 등록은 DIGEST, 조회는 두 키 모두)
+ * 2. migrate() 실행 (actuator blacklistlayout 엔드포인트 POST) -> 기존 키를 남은 TTL 그대로 DIGEST 키로 옮기고 기존 키는 삭제
+ * 3. report()로 두 레이아웃의 엔트리당 크기 비교, 기존 키가 다 없어졌으면 read-legacy: false 로 배포
+ * 마이그레이션 안 하고 기존 키가 TTL(최대 RedisConstants.TTL.BLACKLIST)로 다 만료될 때까지 read-legacy를 켜두는 것도 방법이다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlacklistLayoutMigrator {
+    private static final RedisScript<Long> MEMORY_USAGE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/memory-usage.lua"), Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    @Qualifier(RedisConfig.READ_ONLY_REDIS_TEMPLATE)
+    private final RedisTemplate<String, Object> readOnlyRedisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final RedisKeyScanner keyScanner;
+    private final AuthRedisProperties authRedisProperties;
+
+    /**
+     * TOKEN 레이아웃 키를 batch-size 단위로 DIGEST 레이아웃으로 옮긴다.
+     * 여러 번 실행해도 되고, 도중에 실패하면 다시 실행하면 남은 키만 옮긴다.
+     * @return 옮긴 키 수
+     */
+    public long migrate() {
+        AuthRedisProperties.BlacklistStorage settings = authRedisProperties.getBlacklistStorage();
+        if (settings.getLayout() != AuthRedisProperties.BlacklistStorage.Layout.DIGEST) {
+            throw new IllegalStateException("auth.redis.blacklist-storage.layout must be DIGEST to migrate");
+        }
+
+        int batchSize = authRedisProperties.getBulk().getBatchSize();
+        List<String> batch = new ArrayList<>(batchSize);
+        AtomicLong migrated = new AtomicLong();
+        long scanned = keyScanner.scan(keyGenerator.pattern(RedisConstants.Prefix.BLACKLIST), settings.getScanCount(), key -> {
+            if (!keyGenerator.isLegacyBlacklistKey(key)) {
+                return;
+            }
+            batch.add(key);
+            if (batch.size() >= batchSize) {
+                migrated.addAndGet(migrateBatch(batch));
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            migrated.addAndGet(migrateBatch(batch));
+        }
+
+        log.info("Blacklist layout migration finished: {} scanned, {} migrated", scanned, migrated.get());
+        return migrated.get();
+    }
+
+    /**
+     * 레이아웃별로 report-sample-size 만큼 키를 샘플링해서 엔트리당 메모리 사용량을 잰다.
+     * 한쪽 레이아웃만 있으면 샘플을 다 못 채우므로 블랙리스트 키 전체를 SCAN 하게 된다.
+     */
+    public BlacklistMemoryReport report() {
+        AuthRedisProperties.BlacklistStorage settings = authRedisProperties.getBlacklistStorage();
+        int sampleSize = settings.getReportSampleSize();
+        List<String> tokenKeys = new ArrayList<>();
+        List<String> digestKeys = new ArrayList<>();
+        keyScanner.scanWhile(keyGenerator.pattern(RedisConstants.Prefix.BLACKLIST), settings.getScanCount(), key -> {
+            List<String> sample = keyGenerator.isLegacyBlacklistKey(key) ? tokenKeys : digestKeys;
+            if (sample.size() < sampleSize) {
+                sample.add(key);
+            }
+            return tokenKeys.size() < sampleSize || digestKeys.size() < sampleSize;
+        });
+
+        return BlacklistMemoryReport.builder()
+            .token(measure(tokenKeys))
+            .digest(measure(digestKeys))
+            .build();
+    }
+
+    // PTTL + GET 을 한 pipeline으로 읽고, SET PX + DEL 을 한 pipeline으로 쓴다. (키 하나당 왕복 없이 batch당 두 번)
+    private long migrateBatch(List<String> keys) {
+        List<Object> replies = readOnlyRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                byte[] rawKey = serializeKey(key);
+                connection.keyCommands().pTtl(rawKey);
+                connection.stringCommands().get(rawKey);
+            }
+            return null;
+        });
+
+        long defaultTtlMillis = Duration.ofSeconds(RedisConstants.TTL.BLACKLIST).toMillis();
+        List<Object> writes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.size(); i++) {
+                Object ttl = replies.get(i * 2);
+                Object value = replies.get(i * 2 + 1);
+                // 읽는 사이에 만료된 키 (-2) 는 건너뛴다.
+                if (!(ttl instanceof Long ttlMillis) || ttlMillis == -2 || value == null) {
+                    continue;
+                }
+
+                String key = keys.get(i);
+                long blacklistedAt = value instanceof TokenBlacklist blacklist
+                    ? blacklist.blacklistedAtEpochMilli()
+                    : System.currentTimeMillis();
+                connection.stringCommands().set(
+                    serializeKey(keyGenerator.blacklist(keyGenerator.blacklistToken(key))),
+                    serializeValue(blacklistedAt),
+                    Expiration.milliseconds(ttlMillis > 0 ? ttlMillis : defaultTtlMillis),
+                    RedisStringCommands.SetOption.upsert()
+                );
+                connection.keyCommands().del(serializeKey(key));
+            }
+            return null;
+        });
+        return writes.stream().filter(Boolean.TRUE::equals).count();
+    }
+
+    // MEMORY USAGE는 키 단위 명령이라 클러스터에서도 키가 있는 노드로 가도록 스크립트의 KEYS로 넘긴다.
+    private BlacklistMemoryReport.LayoutUsage measure(List<String> keys) {
+        long totalBytes = 0;
+        long sampledKeys = 0;
+        for (String key : keys) {
+            Long bytes = readOnlyRedisTemplate.execute(MEMORY_USAGE_SCRIPT, List.of(key));
+            if (bytes != null && bytes > 0) {
+                totalBytes += bytes;
+                sampledKeys++;
+            }
+        }
+        return new BlacklistMemoryReport.LayoutUsage(sampledKeys, totalBytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+}
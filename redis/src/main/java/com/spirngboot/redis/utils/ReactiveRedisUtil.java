@@ -0,0 +1,211 @@
+package com.spirngboot.redis.utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.audit.TokenAuditWriter;
+import com.spirngboot.redis.cache.BlacklistBloomFilter;
+import com.spirngboot.redis.cache.BlacklistNearCache;
+import com.spirngboot.redis.domain.RefreshToken;
+import com.spirngboot.redis.dto.TokenAuditEvent;
+import com.spirngboot.redis.dto.TokenBlacklist;
+import com.spirngboot.redis.dto.TokenExpiry;
+import com.spirngboot.redis.listener.TokenRevocationStream;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Redis 유틸리티 클래스
+ *
+ * RedisUtil과 같은 키 체계(RedisKeyGenerator), 같은 직렬화기를 쓰는 ReactiveRedisTemplate 버전이다.
+ * 게이트웨이처럼 WebFlux 기반 서비스에서 RedisUtil을 쓰면 토큰 / role 검증마다 이벤트 루프 스레드가 블로킹된다.
+ * 여기 메서드는 전부 Mono / Flux를 반환하므로 몇 개의 이벤트 루프 스레드로 전체 검증 트래픽을 처리할 수 있다.
+ *
+ * 주의 : 반환된 Mono / Flux는 구독하기 전까지 아무 명령도 보내지 않는다.
+ * 블로킹 코드에서 block()으로 감싸서 쓰는건 의미가 없으니 그런 곳은 RedisUtil을 쓰자.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveRedisUtil {
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final BlacklistNearCache blacklistNearCache;
+    private final BlacklistBloomFilter blacklistBloomFilter;
+    private final AuthRedisProperties authRedisProperties;
+    private final TokenAuditWriter tokenAuditWriter;
+
+    // RedisUtil과 같이 RefreshToken을 저장한다. (rotate-refresh-token.lua가 RefreshToken으로 읽는다)
+    public Mono<Boolean> setRefreshToken(String memberId, String refreshTokenValue) {
+        String key = keyGenerator.refreshToken(memberId);
+        Duration ttl = Duration.ofSeconds(RedisConstants.TTL.REFRESH_TOKEN);
+        RefreshToken refreshToken = RefreshToken.builder()
+            .memberId(memberId)
+            .refreshToken(refreshTokenValue)
+            .expiration(ttl.toMillis())
+            .build();
+        return reactiveRedisTemplate.opsForValue().set(key, refreshToken, ttl);
+    }
+
+    public Mono<RefreshToken> getRefreshToken(String memberId) {
+        String key = keyGenerator.refreshToken(memberId);
+        return reactiveRedisTemplate.opsForValue().get(key).cast(RefreshToken.class);
+    }
+
+    public Mono<Boolean> deleteRefreshToken(String memberId) {
+        String key = keyGenerator.refreshToken(memberId);
+        return reactiveRedisTemplate.delete(key).map(count -> count > 0);
+    }
+
+    public Mono<Boolean> validateRefreshToken(String memberId, String refreshTokenValue) {
+        return getRefreshToken(memberId)
+            .map(stored -> stored.getRefreshToken().equals(refreshTokenValue))
+            .defaultIfEmpty(false);
+    }
+
+    /**
+     * 블랙리스트 토큰 설정
+     * 이는 로그아웃과 관련된 설정임을 인지하자
+     * 폐기 fan-out이 켜져 있으면 등록 후 폐기 Stream에도 키를 남긴다. (RedisUtil과 같은 필드, 문자열 그대로 저장)
+     */
+    public Mono<Boolean> setBlacklistToken(String accessToken, TokenBlacklist blacklist) {
+        String key = keyGenerator.blacklist(accessToken);
+        return reactiveRedisTemplate.opsForValue()
+            .set(key, blacklistValue(blacklist), Duration.ofMillis(blacklist.getExpirationTime()))
+            .doOnNext(applied -> {
+                if (applied) {
+                    blacklistNearCache.put(key, true);
+                    blacklistBloomFilter.add(key);
+                    tokenAuditWriter.record(TokenAuditEvent.Type.BLACKLISTED, null);
+                }
+            })
+            .flatMap(applied -> applied && authRedisProperties.getRevocation().isEnabled()
+                ? publishRevocation(key).thenReturn(true)
+                : Mono.just(applied));
+    }
+
+    private Mono<?> publishRevocation(String key) {
+        return reactiveRedisTemplate.opsForStream(RedisSerializationContext.string())
+            .add(StreamRecords.newRecord().in(keyGenerator.revocationStream()).ofMap(Map.of(TokenRevocationStream.KEY_FIELD, key)),
+                TokenRevocationStream.addOptions(authRedisProperties.getRevocation()));
+    }
+
+    // Bloom filter에 없거나 near-cache에 있으면 redis를 거치지 않고 바로 반환한다.
+    // DIGEST 전환 중(read-legacy)에는 RedisUtil과 같이 기존 키도 EXISTS 한 번으로 같이 본다.
+    // RedisUtil은 near-cache get(key, loader)로 조회와 무효화를 직렬화하는데 여기서는 loader를 블로킹으로 돌릴 수 없다.
+    // 그래서 EXISTS 전에 version을 읽어두고, 그 사이 set 이벤트로 무효화됐으면 조회 결과(false)를 캐시에 다시 넣지 않는다.
+    public Mono<Boolean> isBlacklistToken(String accessToken) {
+        String key = keyGenerator.blacklist(accessToken);
+        String legacyKey = readLegacyBlacklist() ? keyGenerator.legacyBlacklist(accessToken) : null;
+        if (!blacklistBloomFilter.mightContain(key) && (legacyKey == null || !blacklistBloomFilter.mightContain(legacyKey))) {
+            return Mono.just(false);
+        }
+        Boolean cached = blacklistNearCache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        long version = blacklistNearCache.version(key);
+        Mono<Boolean> exists = legacyKey == null
+            ? reactiveRedisTemplate.hasKey(key)
+            : reactiveRedisTemplate.countExistingKeys(List.of(key, legacyKey)).map(count -> count > 0);
+        return exists
+            .doOnNext(blacklisted -> {
+                blacklistNearCache.putIfNotInvalidated(key, blacklisted, version);
+                if (!blacklisted) {
+                    blacklistBloomFilter.recordFalsePositive();
+                }
+            });
+    }
+
+    // DIGEST 레이아웃은 등록 시각(ms)만 저장한다. (RedisUtil과 동일)
+    private Object blacklistValue(TokenBlacklist blacklist) {
+        return isDigestBlacklist() ? blacklist.blacklistedAtEpochMilli() : blacklist;
+    }
+
+    private boolean isDigestBlacklist() {
+        return authRedisProperties.getBlacklistStorage().getLayout() == AuthRedisProperties.BlacklistStorage.Layout.DIGEST;
+    }
+
+    private boolean readLegacyBlacklist() {
+        return isDigestBlacklist() && authRedisProperties.getBlacklistStorage().isReadLegacy();
+    }
+
+    // Sorted Set 토큰 만료 관리 용도임
+    public Mono<Boolean> addTokenWithExpiry(TokenExpiry tokenExpiry) {
+        String member = keyGenerator.tokenExpiryMember(tokenExpiry.getTokenType(), tokenExpiry.getToken());
+        return reactiveRedisTemplate.opsForZSet().add(keyGenerator.tokenExpiry(), member, tokenExpiry.getExpiryTime());
+    }
+
+    public Flux<Object> getExpiredTokens(long currentTime) {
+        return reactiveRedisTemplate.opsForZSet().rangeByScore(keyGenerator.tokenExpiry(), Range.closed(0d, (double) currentTime));
+    }
+
+    public Mono<Long> removeExpiredToken(TokenExpiry tokenExpiry) {
+        String member = keyGenerator.tokenExpiryMember(tokenExpiry.getTokenType(), tokenExpiry.getToken());
+        return reactiveRedisTemplate.opsForZSet().remove(keyGenerator.tokenExpiry(), member);
+    }
+
+    // ------------------------------------------------------------
+
+    // Hash 작업
+    public Mono<Boolean> setHashField(String key, String field, Object value) {
+        return reactiveRedisTemplate.opsForHash().put(key, field, value);
+    }
+
+    public Mono<Object> getHashField(String key, String field) {
+        return reactiveRedisTemplate.opsForHash().get(key, field);
+    }
+
+    public Mono<Map<Object, Object>> getAllHashFields(String key) {
+        return reactiveRedisTemplate.opsForHash().entries(key).collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    // ------------------------------------------------------------
+
+    public Mono<Long> addUserToRole(String role, String memberId) {
+        String key = keyGenerator.role(role);
+        return reactiveRedisTemplate.opsForSet().add(key, memberId);
+    }
+
+    public Flux<Object> getUsersByRole(String role) {
+        String key = keyGenerator.role(role);
+        return reactiveRedisTemplate.opsForSet().members(key);
+    }
+
+    public Mono<Boolean> isUserInRole(String role, String memberId) {
+        String key = keyGenerator.role(role);
+        return reactiveRedisTemplate.opsForSet().isMember(key, memberId);
+    }
+
+    public Mono<Long> removeUserFromRole(String role, String memberId) {
+        String key = keyGenerator.role(role);
+        return reactiveRedisTemplate.opsForSet().remove(key, memberId);
+    }
+
+    // ------------------------------------------------------------
+
+    public Mono<Boolean> set(String key, Object value, long timeoutSeconds) {
+        return reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofSeconds(timeoutSeconds));
+    }
+
+    public Mono<Object> get(String key) {
+        return reactiveRedisTemplate.opsForValue().get(key);
+    }
+
+    public Mono<Boolean> delete(String key) {
+        return reactiveRedisTemplate.delete(key).map(count -> count > 0);
+    }
+
+    public Mono<Boolean> hasKey(String key) {
+        return reactiveRedisTemplate.hasKey(key);
+    }
+}
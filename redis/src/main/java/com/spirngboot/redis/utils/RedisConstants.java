@@ -21,7 +21,13 @@ public final class RedisConstants {
         public static final String USER_SESSION = "session";
         public static final String BLACKLIST = "blacklist";
         public static final String ROLE = "role";
+        public static final String ROLE_BITMAP = "role-bitmap";
+        public static final String CHANGES = "changes";
+        public static final String RATE_LIMIT = "ratelimit";
+        public static final String AUDIT = "audit:tokens";
+        public static final String REVOCATION = "revocation";
         public static final String TOKEN_EXPIRY = "token:expiry";
+        public static final String PROCESSING = "processing";
     }
 
     // TTL (초 단위)
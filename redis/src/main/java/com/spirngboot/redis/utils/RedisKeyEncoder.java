@@ -0,0 +1,94 @@
+package com.spirngboot.redis.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Redis 키 UTF-8 인코딩 유틸리티
+ *
+ * String.getBytes(UTF_8)는 한글처럼 Latin-1이 아닌 문자가 섞이면 최대 크기로 버퍼를 잡은 뒤 잘라서 복사한다.
+ * 여기서는 길이를 먼저 세고 결과 배열 하나에 바로 써서 키 하나당 할당을 결과 byte[] 하나로 맞춘다.
+ * 접두사("auth:blacklist:" 같은)는 미리 인코딩해둔 바이트를 복사만 한다.
+ *
+ * 결과 배열을 재사용하지 않는 이유 : Lettuce는 명령이 실제로 소켓에 써질 때까지 키 배열을 들고 있으므로 호출자에게 넘긴 배열은 새것이어야 한다.
+ */
+public final class RedisKeyEncoder {
+    private RedisKeyEncoder() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static byte[] prefix(String prefix) {
+        return prefix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // prefix + value (hashTag면 prefix + "{" + value + "}")
+    public static byte[] encode(byte[] prefix, String value, boolean hashTag) {
+        int tagLength = hashTag ? 2 : 0;
+        byte[] key = new byte[prefix.length + tagLength + utf8Length(value)];
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        int position = prefix.length;
+        if (hashTag) {
+            key[position++] = '{';
+        }
+        position = write(value, key, position);
+        if (hashTag) {
+            key[position] = '}';
+        }
+        return key;
+    }
+
+    public static byte[] encode(String value) {
+        byte[] key = new byte[utf8Length(value)];
+        write(value, key, 0);
+        return key;
+    }
+
+    public static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // 짝이 없는 surrogate는 JDK와 같이 '?' 한 바이트로 바꾼다.
+                continue;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    // dest[position..]에 value를 UTF-8로 쓰고 다음 위치를 반환
+    public static int write(String value, byte[] dest, int position) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                dest[position++] = (byte) c;
+            } else if (c < 0x800) {
+                dest[position++] = (byte) (0xC0 | (c >> 6));
+                dest[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                dest[position++] = (byte) (0xF0 | (codePoint >> 18));
+                dest[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                dest[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                dest[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dest[position++] = '?';
+            } else {
+                dest[position++] = (byte) (0xE0 | (c >> 12));
+                dest[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dest[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+}
@@ -1,41 +1,265 @@
 package com.spirngboot.redis.utils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 import org.springframework.stereotype.Component;
 
+import com.spirngboot.redis.dto.TokenType;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+
 /**
  * Redis 키 생성 유틸리티 클래스
  * 
  * 이 클래스는 Redis 키 생성 및 관리에 필요한 유틸리티 메서드를 제공합니다.
+ *
+ * 클러스터에서는 키마다 슬롯이 달라서 한 회원의 access / refresh / session 키를 한 명령(MULTI, Lua)으로 묶을 수 없다.
+ * hash-tag-keys를 켜면 memberId를 {memberId} 해시 태그로 감싸서 한 회원의 키가 항상 같은 슬롯에 들어가도록 한다.
+ * (예: auth:access:{42}, auth:refresh:{42}) 같은 이유로 token:expiry 와 처리중 Sorted Set도 같은 태그로 묶는다.
+ *
+ * 블랙리스트 키는 JWT 전체(보통 500바이트 이상)가 키에 들어간다. blacklist-storage.layout이 DIGEST면
+ * 토큰의 SHA-256 digest(base64url 43자)를 대신 써서 키 길이를 고정한다.
+ *
+ * 키 생성은 요청마다 여러 번 도는 hot path라서 "auth:access:" 같은 접두사를 미리 만들어두고 concat 한 번으로 키를 만든다.
+ * (String.join은 호출마다 varargs 배열, StringJoiner, 중간 배열을 만든다)
+ * pipeline처럼 raw 커넥션에 바로 넘기는 곳은 ...Bytes 메서드로 String을 거치지 않고 미리 인코딩한 접두사 바이트 뒤에 바로 쓴다.
  */
 @Component
 public class RedisKeyGenerator {
+    private static final String ACCESS_TOKEN_PREFIX = prefix(RedisConstants.Prefix.ACCESS_TOKEN);
+    private static final String REFRESH_TOKEN_PREFIX = prefix(RedisConstants.Prefix.REFRESH_TOKEN);
+    private static final String USER_SESSION_PREFIX = prefix(RedisConstants.Prefix.USER_SESSION);
+    private static final String BLACKLIST_PREFIX = prefix(RedisConstants.Prefix.BLACKLIST);
+    private static final String ROLE_PREFIX = prefix(RedisConstants.Prefix.ROLE);
+    private static final String ROLE_BITMAP_PREFIX = prefix(RedisConstants.Prefix.ROLE_BITMAP);
+    private static final String RATE_LIMIT_PREFIX = prefix(RedisConstants.Prefix.RATE_LIMIT);
+    private static final String SERVICE_PREFIX = RedisConstants.SERVICE_ID + RedisConstants.DELIMITER;
+    private static final String CHANGES_SUFFIX = RedisConstants.DELIMITER + RedisConstants.Prefix.CHANGES;
+    private static final String PATTERN_SUFFIX = RedisConstants.DELIMITER + "*";
+    private static final String AUDIT_STREAM = SERVICE_PREFIX + RedisConstants.Prefix.AUDIT;
+    private static final String REVOCATION_STREAM = SERVICE_PREFIX + RedisConstants.Prefix.REVOCATION;
+    private static final byte[] REFRESH_TOKEN_PREFIX_BYTES = RedisKeyEncoder.prefix(REFRESH_TOKEN_PREFIX);
+    private static final byte[] USER_SESSION_PREFIX_BYTES = RedisKeyEncoder.prefix(USER_SESSION_PREFIX);
+    private static final byte[] BLACKLIST_PREFIX_BYTES = RedisKeyEncoder.prefix(BLACKLIST_PREFIX);
+    private static final byte[] ROLE_PREFIX_BYTES = RedisKeyEncoder.prefix(ROLE_PREFIX);
+
+    // SHA-256(32바이트)를 패딩 없는 base64url로 인코딩한 길이
+    private static final int DIGEST_LENGTH = 43;
+    private static final byte[] BASE64_URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    // digest 계산용 스레드별 작업 버퍼 (토큰 인코딩 / digest 결과), 결과 키가 아니라 중간값만 담으므로 재사용해도 된다.
+    private static final ThreadLocal<byte[][]> DIGEST_BUFFERS = ThreadLocal.withInitial(() -> new byte[][] {new byte[1024], new byte[32]});
+    // MessageDigest는 thread-safe 하지 않고 getInstance도 매번 provider를 찾으므로 스레드마다 하나씩 재사용한다.
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final boolean hashTagKeys;
+    private final boolean digestBlacklistKeys;
+    // hash-tag-keys에 따라 달라지지만 인자가 없는 키라서 생성 시점에 한 번만 만든다.
+    private final String tokenExpiryKey;
+    private final String tokenExpiryProcessingKey;
+
+    public RedisKeyGenerator(AuthRedisProperties authRedisProperties) {
+        this.hashTagKeys = authRedisProperties.getTopology().isHashTagKeys();
+        this.digestBlacklistKeys = authRedisProperties.getBlacklistStorage().getLayout() == AuthRedisProperties.BlacklistStorage.Layout.DIGEST;
+        this.tokenExpiryKey = hashTag(RedisConstants.Prefix.TOKEN_EXPIRY);
+        this.tokenExpiryProcessingKey = tokenExpiryKey + RedisConstants.DELIMITER + RedisConstants.Prefix.PROCESSING;
+    }
+
     // Access Token 키 생성
     public String accessToken(String memberId) {
-        return String.join(RedisConstants.DELIMITER, RedisConstants.SERVICE_ID, RedisConstants.Prefix.ACCESS_TOKEN, memberId);
+        return ACCESS_TOKEN_PREFIX.concat(hashTag(memberId));
     }
 
     // Refresh Token 키 생성
     public String refreshToken(String memberId) {
-        return String.join(RedisConstants.DELIMITER, RedisConstants.SERVICE_ID, RedisConstants.Prefix.REFRESH_TOKEN, memberId);
+        return REFRESH_TOKEN_PREFIX.concat(hashTag(memberId));
+    }
+
+    public byte[] refreshTokenBytes(String memberId) {
+        return RedisKeyEncoder.encode(REFRESH_TOKEN_PREFIX_BYTES, memberId, hashTagKeys);
     }
 
     // User Session 키 생성
     public String userSession(String memberId) {
-        return String.join(RedisConstants.DELIMITER, RedisConstants.SERVICE_ID, RedisConstants.Prefix.USER_SESSION, memberId);
+        return USER_SESSION_PREFIX.concat(hashTag(memberId));
+    }
+
+    public byte[] userSessionBytes(String memberId) {
+        return RedisKeyEncoder.encode(USER_SESSION_PREFIX_BYTES, memberId, hashTagKeys);
     }
 
-    // Blacklist 키 생성
+    // Blacklist 키 생성 (레이아웃에 따라 토큰 그대로 또는 digest)
+    // digest 키는 ASCII라 바이트로 만든 뒤 Latin-1로 String을 만들면 복사 한 번으로 끝난다.
     public String blacklist(String token) {
-        return String.join(RedisConstants.DELIMITER, RedisConstants.SERVICE_ID, RedisConstants.Prefix.BLACKLIST, token);
+        return digestBlacklistKeys ? new String(digestKey(token), StandardCharsets.ISO_8859_1) : legacyBlacklist(token);
+    }
+
+    public byte[] blacklistBytes(String token) {
+        return digestBlacklistKeys ? digestKey(token) : RedisKeyEncoder.encode(BLACKLIST_PREFIX_BYTES, token, false);
+    }
+
+    // 기존(TOKEN) 레이아웃의 Blacklist 키, DIGEST 전환 후 마이그레이션 / 이중 조회에서만 사용
+    public String legacyBlacklist(String token) {
+        return BLACKLIST_PREFIX.concat(token);
+    }
+
+    // JWT는 digest 길이(43자)보다 항상 길기 때문에 접미사 길이로 두 레이아웃을 구분한다.
+    public boolean isLegacyBlacklistKey(String key) {
+        String token = blacklistToken(key);
+        return token != null && token.length() != DIGEST_LENGTH;
+    }
+
+    // 토큰 원문 대신 로그 / audit에 남길 식별자 (DIGEST 레이아웃 블랙리스트 키의 접미사와 같은 값)
+    public String tokenDigest(String token) {
+        byte[] digest = new byte[DIGEST_LENGTH];
+        writeDigest(token, digest, 0);
+        return new String(digest, StandardCharsets.ISO_8859_1);
+    }
+
+    // Blacklist 키에서 접미사(토큰 또는 digest) 추출, Blacklist 키가 아니면 null
+    public String blacklistToken(String key) {
+        return key != null && key.startsWith(BLACKLIST_PREFIX) ? key.substring(BLACKLIST_PREFIX.length()) : null;
     }
 
     // Role 키 생성
     public String role(String roleType) {
-        return String.join(RedisConstants.DELIMITER, RedisConstants.SERVICE_ID, RedisConstants.Prefix.ROLE, roleType);
+        return ROLE_PREFIX.concat(roleType);
+    }
+
+    public byte[] roleBytes(String roleType) {
+        return RedisKeyEncoder.encode(ROLE_PREFIX_BYTES, roleType, false);
+    }
+
+    // Role 비트맵 키 (memberId가 비트 오프셋)
+    // 비트맵과 변경 로그를 한 Lua 스크립트에서 같이 다루므로 hash-tag-keys 설정과 관계없이 role을 항상 해시 태그로 감싼다.
+    public String roleBitmap(String roleType) {
+        return ROLE_BITMAP_PREFIX + "{" + roleType + "}";
+    }
+
+    // Role 비트맵 키에서 role 추출, 비트맵 키가 아니면(변경 로그 Stream 등) null
+    public String roleOfBitmap(String key) {
+        if (!key.startsWith(ROLE_BITMAP_PREFIX) || key.charAt(key.length() - 1) != '}') {
+            return null;
+        }
+        int start = ROLE_BITMAP_PREFIX.length();
+        return key.charAt(start) == '{' ? key.substring(start + 1, key.length() - 1) : null;
+    }
+
+    // Role 비트맵 변경 로그 Stream 키 (로컬 스냅샷 증분 갱신용)
+    public String roleBitmapChanges(String roleType) {
+        return roleBitmap(roleType).concat(CHANGES_SUFFIX);
+    }
+
+    // Rate limit 버킷 키 (limit 이름 + 식별자, 예: auth:ratelimit:refresh:42)
+    public String rateLimit(String limitName, String identity) {
+        return RATE_LIMIT_PREFIX.concat(limitName).concat(RedisConstants.DELIMITER).concat(identity);
+    }
+
+    // 토큰 lifecycle audit Stream 키
+    public String auditStream() {
+        return AUDIT_STREAM;
+    }
+
+    // 토큰 폐기 fan-out Stream 키
+    public String revocationStream() {
+        return REVOCATION_STREAM;
+    }
+
+    // 토큰 만료 Sorted Set 키
+    public String tokenExpiry() {
+        return tokenExpiryKey;
+    }
+
+    // 만료 sweeper가 처리중인 멤버를 잠시 옮겨두는 Sorted Set 키 (Lua 스크립트에서 같이 쓰므로 tokenExpiry와 같은 슬롯)
+    public String tokenExpiryProcessing() {
+        return tokenExpiryProcessingKey;
+    }
+
+    // 토큰 만료 Sorted Set 멤버 생성 (sweeper가 토큰 종류를 알 수 있도록 타입을 앞에 붙인다)
+    public String tokenExpiryMember(TokenType tokenType, String token) {
+        return tokenType.name() + RedisConstants.DELIMITER + token;
+    }
+
+    // 키에서 타입(접두사) 추출, "auth:{type}:..." 형태가 아니면 null
+    // contains로 판별하면 memberId에 "access" 같은 문자열이 들어간 경우도 걸리므로 두 번째 세그먼트를 정확히 잘라서 비교한다.
+    public String typeOf(String key) {
+        if (key == null || !key.startsWith(SERVICE_PREFIX)) {
+            return null;
+        }
+        int end = key.indexOf(RedisConstants.DELIMITER, SERVICE_PREFIX.length());
+        return end < 0 ? null : key.substring(SERVICE_PREFIX.length(), end);
     }
 
     // 키 패턴 생성 (검색용)
     public String pattern(String type) {
-        return String.join(RedisConstants.DELIMITER, RedisConstants.SERVICE_ID, type, "*");
+        return SERVICE_PREFIX.concat(type).concat(PATTERN_SUFFIX);
+    }
+
+    /**
+     * "auth:blacklist:" + base64url(SHA-256(token)) 를 결과 배열 하나에 바로 쓴다.
+     * 토큰 인코딩과 digest 결과는 스레드별 작업 버퍼를 재사용하므로 결과 배열 외에는 할당하지 않는다. (버퍼보다 긴 토큰만 예외)
+     */
+    private byte[] digestKey(String token) {
+        byte[] key = new byte[BLACKLIST_PREFIX_BYTES.length + DIGEST_LENGTH];
+        System.arraycopy(BLACKLIST_PREFIX_BYTES, 0, key, 0, BLACKLIST_PREFIX_BYTES.length);
+        writeDigest(token, key, BLACKLIST_PREFIX_BYTES.length);
+        return key;
+    }
+
+    private static void writeDigest(String token, byte[] dest, int position) {
+        byte[][] buffers = DIGEST_BUFFERS.get();
+        int length = RedisKeyEncoder.utf8Length(token);
+        if (buffers[0].length < length) {
+            buffers[0] = new byte[length];
+        }
+        RedisKeyEncoder.write(token, buffers[0], 0);
+
+        MessageDigest sha256 = SHA_256.get();
+        sha256.update(buffers[0], 0, length);
+        byte[] hash = buffers[1];
+        try {
+            sha256.digest(hash, 0, hash.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        encodeBase64Url(hash, dest, position);
+    }
+
+    // 패딩 없는 base64url (java.util.Base64와 같은 결과, 대상 배열 중간에 바로 쓰기 위해 직접 구현)
+    private static void encodeBase64Url(byte[] source, byte[] dest, int position) {
+        int i = 0;
+        for (; i + 2 < source.length; i += 3) {
+            int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8 | (source[i + 2] & 0xFF);
+            dest[position++] = BASE64_URL[(bits >>> 18) & 0x3F];
+            dest[position++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            dest[position++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            dest[position++] = BASE64_URL[bits & 0x3F];
+        }
+        int remaining = source.length - i;
+        if (remaining == 1) {
+            int bits = (source[i] & 0xFF) << 16;
+            dest[position++] = BASE64_URL[(bits >>> 18) & 0x3F];
+            dest[position] = BASE64_URL[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8;
+            dest[position++] = BASE64_URL[(bits >>> 18) & 0x3F];
+            dest[position++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            dest[position] = BASE64_URL[(bits >>> 6) & 0x3F];
+        }
+    }
+
+    private static String prefix(String type) {
+        return RedisConstants.SERVICE_ID + RedisConstants.DELIMITER + type + RedisConstants.DELIMITER;
+    }
+
+    private String hashTag(String value) {
+        return hashTagKeys ? "{" + value + "}" : value;
     }
 }
@@ -0,0 +1,82 @@
+package com.spirngboot.redis.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import com.spirngboot.redis.config.RedisConfig;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * SCAN 기반 키 순회 유틸리티
+ *
+ * KEYS는 한 번에 전체 키를 훑으면서 redis를 막아버리므로 공유 클러스터에서는 쓸 수 없다.
+ * SCAN은 count 단위로 나눠서 가져오기 때문에 중간중간 다른 명령이 끼어들 수 있다. (대신 순회 중 바뀐 키는 빠지거나 중복될 수 있음)
+ * 클러스터에서는 SCAN이 노드 단위 명령이므로 primary 노드마다 따로 순회한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisKeyScanner {
+    @Qualifier(RedisConfig.READ_ONLY_REDIS_TEMPLATE)
+    private final RedisTemplate<String, Object> readOnlyRedisTemplate;
+
+    /**
+     * pattern에 맞는 키를 순회하면서 consumer에 넘긴다.
+     * @return 순회한 키 수
+     */
+    public long scan(String pattern, int count, Consumer<String> consumer) {
+        return scanWhile(pattern, count, key -> {
+            consumer.accept(key);
+            return true;
+        });
+    }
+
+    /**
+     * scan과 같지만 consumer가 false를 반환하면 거기서 순회를 멈춘다. (샘플링처럼 일부만 필요한 경우)
+     * @return 순회한 키 수
+     */
+    public long scanWhile(String pattern, int count, Predicate<String> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+        Long scanned = readOnlyRedisTemplate.execute((RedisCallback<Long>) connection -> {
+            if (connection instanceof RedisClusterConnection clusterConnection) {
+                long total = 0;
+                for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+                    if (node.isMaster()) {
+                        long drained = drain(clusterConnection.scan(node, options), consumer);
+                        total += Math.abs(drained);
+                        if (drained < 0) {
+                            break;
+                        }
+                    }
+                }
+                return total;
+            }
+            return Math.abs(drain(connection.keyCommands().scan(options), consumer));
+        });
+        return scanned == null ? 0 : scanned;
+    }
+
+    // 중간에 멈춘 경우 음수로 반환해서 클러스터에서 다음 노드로 넘어가지 않도록 한다.
+    private long drain(Cursor<byte[]> cursor, Predicate<String> consumer) {
+        long count = 0;
+        try (cursor) {
+            while (cursor.hasNext()) {
+                count++;
+                if (!consumer.test(new String(cursor.next(), StandardCharsets.UTF_8))) {
+                    return -count;
+                }
+            }
+        }
+        return count;
+    }
+}
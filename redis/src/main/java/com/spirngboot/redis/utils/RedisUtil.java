@@ -1,18 +1,46 @@
 package com.spirngboot.redis.utils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.security.core.Authentication;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
+import com.spirngboot.redis.audit.TokenAuditWriter;
+import com.spirngboot.redis.cache.BlacklistBloomFilter;
+import com.spirngboot.redis.cache.BlacklistNearCache;
+import com.spirngboot.redis.config.RedisConfig;
 import com.spirngboot.redis.domain.RefreshToken;
+import com.spirngboot.redis.dto.BulkOperationResult;
+import com.spirngboot.redis.dto.RefreshTokenRotationResult;
+import com.spirngboot.redis.dto.TokenAuditEvent;
 import com.spirngboot.redis.dto.TokenBlacklist;
 import com.spirngboot.redis.dto.TokenExpiry;
+import com.spirngboot.redis.listener.TokenRevocationStream;
+import com.spirngboot.redis.metrics.RedisOperationMetrics;
+import com.spirngboot.redis.settings.AuthRedisProperties;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 /**
  * Redis 유틸리티 클래스
  * 
@@ -36,26 +64,55 @@ import lombok.RequiredArgsConstructor;
  * 뭐 이렇게 생각할 거같은데 반대로 생각하면 싱글스레드로 동작하면서 하나의 커맨드가 10ms 걸리면 다른 사용자 요청은 대기를 해야된다 이 과정에서 예상치
  * 못한 오류가 발생할 수 있다는 점을 인지해야된다. -> 즉 구현을 할 때 지연시간이 최소가 되도록 구현을 하도록 신경을 써야된다.
  * 
+ * 읽기 전용 메서드는 트랜잭션에 묶이지 않는 readOnlyRedisTemplate을 사용한다.
+ * 트랜잭션 템플릿으로 읽으면 @Transactional 안에서는 MULTI에 쌓이기만 하고 null이 반환되며, 커넥션도 트랜잭션 동안 점유된다.
+ *
+ * 모든 public 메서드는 RedisOperationMetrics로 감싸서 "refreshToken.get" 같은 작업 이름으로 지연을 기록한다.
+ * 발급 / 재발급 / 블랙리스트 등록은 TokenAuditWriter에 audit 이벤트로 남긴다. (버퍼에 넣기만 하므로 요청 스레드는 기다리지 않는다)
+ * 블랙리스트 등록은 TokenRevocationStream에도 남겨서 다른 노드의 로컬 캐시가 바로 반영하도록 한다.
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class RedisUtil {
+    private static final RedisScript<Long> ROTATE_REFRESH_TOKEN_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/rotate-refresh-token.lua"), Long.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
+    @Qualifier(RedisConfig.READ_ONLY_REDIS_TEMPLATE)
+    private final RedisTemplate<String, Object> readOnlyRedisTemplate;
     private final RedisKeyGenerator keyGenerator;
+    private final BlacklistNearCache blacklistNearCache;
+    private final BlacklistBloomFilter blacklistBloomFilter;
+    private final AuthRedisProperties authRedisProperties;
+    private final RedisOperationMetrics redisMetrics;
+    private final TokenAuditWriter tokenAuditWriter;
+    private final TokenRevocationStream tokenRevocationStream;
 
-    public void setRefreshToken(String memberId, Authentication authentication) {
+    /**
+     * refresh 키에는 RefreshToken을 저장한다. getRefreshToken / rotate-refresh-token.lua가 이 값을 RefreshToken으로 읽는다.
+     * (예전처럼 Authentication을 저장하면 스크립트가 토큰 필드를 못 찾아서 모든 교체가 MISMATCH가 된다)
+     */
+    public void setRefreshToken(String memberId, String refreshTokenValue) {
         String key = keyGenerator.refreshToken(memberId);
-        redisTemplate.opsForValue().set(key, authentication, Duration.ofSeconds(RedisConstants.TTL.REFRESH_TOKEN));
+        Duration ttl = Duration.ofSeconds(RedisConstants.TTL.REFRESH_TOKEN);
+        RefreshToken refreshToken = RefreshToken.builder()
+            .memberId(memberId)
+            .refreshToken(refreshTokenValue)
+            .expiration(ttl.toMillis())
+            .build();
+        redisMetrics.run("refreshToken.set", key, () -> redisTemplate.opsForValue().set(key, refreshToken, ttl));
+        tokenAuditWriter.record(TokenAuditEvent.Type.ISSUED, memberId);
     }
 
     public RefreshToken getRefreshToken(String memberId) {
         String key = keyGenerator.refreshToken(memberId);
-        return (RefreshToken) redisTemplate.opsForValue().get(key);
+        return redisMetrics.record("refreshToken.get", key, () -> (RefreshToken) readOnlyRedisTemplate.opsForValue().get(key));
     }
 
     public boolean deleteRefreshToken(String memberId) {
         String key = keyGenerator.refreshToken(memberId);
-        return Boolean.TRUE.equals(redisTemplate.delete(key));
+        return redisMetrics.record("refreshToken.delete", key, () -> Boolean.TRUE.equals(redisTemplate.delete(key)));
     }
 
     public boolean validateRefreshToken(String memberId, String refreshTokenValue) {
@@ -63,86 +120,329 @@ public class RedisUtil {
         return storedRefreshToken != null && storedRefreshToken.getRefreshToken().equals(refreshTokenValue);
     }
 
+    /**
+     * Refresh Token 원자적 교체
+     *
+     * 기존에는 validateRefreshToken(GET 후 자바에서 비교) -> delete -> set 순서로 여러 번 왕복했고,
+     * 그 사이에 같은 토큰으로 두 요청이 동시에 들어오면 둘 다 검증을 통과하는 재사용(replay) 구간이 있었다.
+     * rotate-refresh-token.lua가 비교, 새 토큰 저장(TTL 포함), 이전 토큰 블랙리스트 등록을 한 번에 수행한다.
+     * 스크립트는 DefaultRedisScript가 SHA를 들고 있다가 EVALSHA로 호출한다. (서버에 없으면 EVAL로 한번 올림)
+     *
+     * 클러스터 모드에서는 블랙리스트 키가 refresh 키와 다른 슬롯이라 스크립트에 같이 넘길 수 없으므로
+     * 교체에 성공한 경우에만 블랙리스트를 따로 등록한다. (교체 자체의 원자성은 동일)
+     */
+    public RefreshTokenRotationResult rotateRefreshToken(String memberId, String presentedToken, String newToken) {
+        RefreshTokenRotationResult result = redisMetrics.record("refreshToken.rotate", keyGenerator.refreshToken(memberId),
+            () -> doRotateRefreshToken(memberId, presentedToken, newToken));
+        if (result == RefreshTokenRotationResult.ROTATED) {
+            tokenAuditWriter.record(TokenAuditEvent.Type.REFRESHED, memberId);
+        }
+        return result;
+    }
+
+    private RefreshTokenRotationResult doRotateRefreshToken(String memberId, String presentedToken, String newToken) {
+        String refreshKey = keyGenerator.refreshToken(memberId);
+        String blacklistKey = keyGenerator.blacklist(presentedToken);
+        boolean cluster = authRedisProperties.getTopology().getMode() == AuthRedisProperties.Topology.Mode.CLUSTER;
+
+        long refreshTtlMillis = Duration.ofSeconds(RedisConstants.TTL.REFRESH_TOKEN).toMillis();
+        long blacklistTtlMillis = Duration.ofSeconds(RedisConstants.TTL.BLACKLIST).toMillis();
+        RefreshToken rotated = RefreshToken.builder()
+            .memberId(memberId)
+            .refreshToken(newToken)
+            .expiration(refreshTtlMillis)
+            .build();
+        TokenBlacklist blacklist = TokenBlacklist.builder()
+            .token(presentedToken)
+            .expirationTime(blacklistTtlMillis)
+            .blacklistedAt(LocalDateTime.now())
+            .build();
+
+        Long reply = redisTemplate.execute(
+            ROTATE_REFRESH_TOKEN_SCRIPT,
+            RedisSerializer.byteArray(),
+            new GenericToStringSerializer<>(Long.class),
+            cluster ? List.of(refreshKey) : List.of(refreshKey, blacklistKey),
+            presentedToken.getBytes(StandardCharsets.UTF_8),
+            serializeValue(rotated),
+            String.valueOf(refreshTtlMillis).getBytes(StandardCharsets.UTF_8),
+            serializeValue(blacklistValue(blacklist)),
+            String.valueOf(blacklistTtlMillis).getBytes(StandardCharsets.UTF_8)
+        );
+
+        RefreshTokenRotationResult result = RefreshTokenRotationResult.of(reply);
+        if (result == RefreshTokenRotationResult.ROTATED) {
+            if (cluster) {
+                redisTemplate.opsForValue().set(blacklistKey, blacklistValue(blacklist), Duration.ofMillis(blacklistTtlMillis));
+            }
+            blacklistNearCache.put(blacklistKey, true);
+            blacklistBloomFilter.add(blacklistKey);
+            tokenRevocationStream.publish(List.of(blacklistKey));
+        }
+        return result;
+    }
+
     /**
      * 블랙리스트 토큰 설정
      * 이는 로그아웃과 관련된 설정임을 인지하자
+     * 폐기 fan-out이 켜져 있으면 SET과 폐기 Stream XADD를 pipeline 하나로 보낸다. (왕복은 그대로 한 번)
      */
     public void setBlacklistToken(String accessToken, TokenBlacklist blacklist) {
         String key = keyGenerator.blacklist(accessToken);
-        redisTemplate.opsForValue().set(key, blacklist, Duration.ofMillis(blacklist.getExpirationTime()));
+        // 블랙리스트 키에는 토큰이 들어있으므로 slow log에는 접두사만 남긴다.
+        if (tokenRevocationStream.isEnabled()) {
+            byte[] rawKey = keyGenerator.blacklistBytes(accessToken);
+            redisMetrics.run("blacklist.set", RedisConstants.Prefix.BLACKLIST,
+                () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    connection.stringCommands().set(rawKey, serializeValue(blacklistValue(blacklist)),
+                        Expiration.milliseconds(blacklist.getExpirationTime()), RedisStringCommands.SetOption.upsert());
+                    tokenRevocationStream.append(connection, rawKey);
+                    return null;
+                }));
+        } else {
+            redisMetrics.run("blacklist.set", RedisConstants.Prefix.BLACKLIST,
+                () -> redisTemplate.opsForValue().set(key, blacklistValue(blacklist), Duration.ofMillis(blacklist.getExpirationTime())));
+        }
+        blacklistNearCache.put(key, true);
+        blacklistBloomFilter.add(key);
+        tokenAuditWriter.record(TokenAuditEvent.Type.BLACKLISTED, null);
     }
 
+    /**
+     * 블랙리스트 여부 확인
+     * 모든 인증 요청마다 호출되는 hot path 이므로 Bloom filter -> near-cache -> redis 순서로 확인한다.
+     * Bloom filter가 없다고 하면 확실히 없는 것이므로 바로 false.
+     *
+     * DIGEST 레이아웃으로 전환 중(read-legacy)이면 기존 키도 같이 본다. EXISTS 한 번에 두 키를 넘기므로 왕복은 그대로 한 번이다.
+     */
     public boolean isBlacklistToken(String accessToken) {
+        return redisMetrics.record("blacklist.check", RedisConstants.Prefix.BLACKLIST, () -> checkBlacklistToken(accessToken));
+    }
+
+    private boolean checkBlacklistToken(String accessToken) {
         String key = keyGenerator.blacklist(accessToken);
-        return redisTemplate.hasKey(key);
+        String legacyKey = readLegacyBlacklist() ? keyGenerator.legacyBlacklist(accessToken) : null;
+        if (!blacklistBloomFilter.mightContain(key) && (legacyKey == null || !blacklistBloomFilter.mightContain(legacyKey))) {
+            return false;
+        }
+
+        boolean blacklisted = blacklistNearCache.get(key, k -> {
+            if (legacyKey == null) {
+                return Boolean.TRUE.equals(readOnlyRedisTemplate.hasKey(k));
+            }
+            Long count = readOnlyRedisTemplate.countExistingKeys(List.of(k, legacyKey));
+            return count != null && count > 0;
+        });
+        if (!blacklisted) {
+            blacklistBloomFilter.recordFalsePositive();
+        }
+        return blacklisted;
     }
 
     // Sorted Set 토큰 만료 관리 용도임
+    // 멤버는 "{TokenType}:{token}" 형태, score는 만료 시각(ms). TokenExpirySweeper가 이 Sorted Set을 주기적으로 처리한다.
     public void addTokenWithExpiry(TokenExpiry tokenExpiry) {
-        redisTemplate.opsForZSet().add(RedisConstants.Prefix.TOKEN_EXPIRY, tokenExpiry.getToken(), tokenExpiry.getExpiryTime());
+        String member = keyGenerator.tokenExpiryMember(tokenExpiry.getTokenType(), tokenExpiry.getToken());
+        redisMetrics.run("tokenExpiry.add", keyGenerator.tokenExpiry(),
+            () -> redisTemplate.opsForZSet().add(keyGenerator.tokenExpiry(), member, tokenExpiry.getExpiryTime()));
     }
 
     public Set<Object> getExpiredTokens(long currentTime) {
-        return redisTemplate.opsForZSet().rangeByScore(RedisConstants.Prefix.TOKEN_EXPIRY,0, currentTime);
+        return redisMetrics.record("tokenExpiry.range", keyGenerator.tokenExpiry(),
+            () -> readOnlyRedisTemplate.opsForZSet().rangeByScore(keyGenerator.tokenExpiry(), 0, currentTime));
     }
 
     public void removeExpiredToken(TokenExpiry tokenExpiry) {
-        redisTemplate.opsForZSet().remove(RedisConstants.Prefix.TOKEN_EXPIRY, tokenExpiry.getToken());
+        String member = keyGenerator.tokenExpiryMember(tokenExpiry.getTokenType(), tokenExpiry.getToken());
+        redisMetrics.run("tokenExpiry.remove", keyGenerator.tokenExpiry(),
+            () -> redisTemplate.opsForZSet().remove(keyGenerator.tokenExpiry(), member));
     }
 
     // ------------------------------------------------------------
 
     // Hash 작업 추가
+    // 여기 Hash 메서드는 TTL을 걸지 않는다. userSession은 SessionStore(sliding TTL, 필요한 필드만 조회)를 쓰자.
     public void setHashField(String key, String field, Object value) {
-        redisTemplate.opsForHash().put(key, field, value);
+        redisMetrics.run("hash.set", key, () -> redisTemplate.opsForHash().put(key, field, value));
     }
 
     public Object getHashField(String key, String field) {
-        return redisTemplate.opsForHash().get(key, field);
+        return redisMetrics.record("hash.get", key, () -> readOnlyRedisTemplate.opsForHash().get(key, field));
     }
 
     public Map<Object, Object> getAllHashFields(String key) {
-        return redisTemplate.opsForHash().entries(key);
+        return redisMetrics.record("hash.entries", key, () -> readOnlyRedisTemplate.opsForHash().entries(key));
     }
 
     // ------------------------------------------------------------
+    // memberId가 숫자고 멤버가 많은 role은 RoleBitmapStore(비트맵 + 로컬 스냅샷)를 쓰자. 여기 Set 기반 메서드는 조회마다 Set 전체를 가져온다.
 
     public void addUserToRole(String role, String memberId) {
         String key = keyGenerator.role(role);
-        redisTemplate.opsForSet().add(key, memberId);
+        redisMetrics.run("role.add", key, () -> redisTemplate.opsForSet().add(key, memberId));
     }
 
     public Set<Object> getUsersByRole(String role) {
         String key = keyGenerator.role(role);
-        return redisTemplate.opsForSet().members(key);
+        return redisMetrics.record("role.members", key, () -> readOnlyRedisTemplate.opsForSet().members(key));
     }
 
     public boolean isUserInRole(String role, String memberId) {
         String key = keyGenerator.role(role);
-        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(key, memberId));
+        return redisMetrics.record("role.isMember", key, () -> Boolean.TRUE.equals(readOnlyRedisTemplate.opsForSet().isMember(key, memberId)));
     }
 
     public void removeUserFromRole(String role, String memberId) {
         String key = keyGenerator.role(role);
-        redisTemplate.opsForSet().remove(key, memberId);
+        redisMetrics.run("role.remove", key, () -> redisTemplate.opsForSet().remove(key, memberId));
+    }
+
+    // ------------------------------------------------------------
+    // Bulk 작업 (pipeline)
+    // 단건 메서드를 반복 호출하면 키마다 네트워크 왕복이 한번씩 발생한다. 대량 로그아웃, role 동기화처럼 많은 키를 한번에 다룰 때는
+    // executePipelined로 batch-size 단위로 묶어서 보낸다. batch 하나가 실패해도 나머지 batch는 계속 진행하고 결과에 FAILED로 남긴다.
+    // 너무 큰 batch는 redis 출력 버퍼와 클라이언트 메모리를 잡아먹으므로 batch-size는 수백~수천 정도로 유지하자.
+
+    public Map<String, RefreshToken> getRefreshTokens(Collection<String> memberIds) {
+        return redisMetrics.record("refreshToken.getBulk", memberIds.size() + " members", () -> doGetRefreshTokens(memberIds));
+    }
+
+    private Map<String, RefreshToken> doGetRefreshTokens(Collection<String> memberIds) {
+        Map<String, RefreshToken> refreshTokens = new LinkedHashMap<>();
+        for (List<String> batch : partition(memberIds)) {
+            List<Object> values = readOnlyRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String memberId : batch) {
+                    connection.stringCommands().get(keyGenerator.refreshTokenBytes(memberId));
+                }
+                return null;
+            });
+
+            for (int i = 0; i < batch.size(); i++) {
+                if (values.get(i) instanceof RefreshToken refreshToken) {
+                    refreshTokens.put(batch.get(i), refreshToken);
+                }
+            }
+        }
+        return refreshTokens;
+    }
+
+    // 토큰마다 TTL(expirationTime)이 다르므로 SET PX 를 토큰별로 pipeline에 쌓는다.
+    public BulkOperationResult setBlacklistTokens(Collection<TokenBlacklist> blacklists) {
+        BulkOperationResult result = executePipelinedInBatches("blacklist.setBulk", blacklists, TokenBlacklist::getToken,
+            (connection, blacklist) -> connection.stringCommands().set(
+                keyGenerator.blacklistBytes(blacklist.getToken()),
+                serializeValue(blacklistValue(blacklist)),
+                Expiration.milliseconds(blacklist.getExpirationTime()),
+                RedisStringCommands.SetOption.upsert()
+            ));
+
+        // 항목별 결과를 reply 순서로 매기므로 폐기 Stream XADD는 같은 pipeline에 섞지 않고 적용된 키만 따로 보낸다.
+        List<String> appliedKeys = new ArrayList<>();
+        result.getStatuses().forEach((token, status) -> {
+            if (status == BulkOperationResult.Status.APPLIED) {
+                String key = keyGenerator.blacklist(token);
+                blacklistNearCache.put(key, true);
+                blacklistBloomFilter.add(key);
+                tokenAuditWriter.record(TokenAuditEvent.Type.BLACKLISTED, null);
+                appliedKeys.add(key);
+            }
+        });
+        tokenRevocationStream.publish(appliedKeys);
+        return result;
+    }
+
+    public BulkOperationResult addUsersToRole(String role, Collection<String> memberIds) {
+        byte[] key = keyGenerator.roleBytes(role);
+        return executePipelinedInBatches("role.addBulk", memberIds, Function.identity(),
+            (connection, memberId) -> connection.setCommands().sAdd(key, serializeValue(memberId)));
+    }
+
+    public BulkOperationResult removeUsersFromRole(String role, Collection<String> memberIds) {
+        byte[] key = keyGenerator.roleBytes(role);
+        return executePipelinedInBatches("role.removeBulk", memberIds, Function.identity(),
+            (connection, memberId) -> connection.setCommands().sRem(key, serializeValue(memberId)));
+    }
+
+    /**
+     * 블랙리스트 저장 값
+     * DIGEST 레이아웃은 토큰을 키(digest)로, 만료를 TTL로 이미 들고 있으므로 등록 시각(ms) 숫자 하나만 남긴다.
+     * 정수 문자열은 redis가 int 인코딩으로 저장하므로 값 쪽 메모리는 거의 들지 않는다.
+     */
+    private Object blacklistValue(TokenBlacklist blacklist) {
+        return isDigestBlacklist() ? blacklist.blacklistedAtEpochMilli() : blacklist;
+    }
+
+    private boolean isDigestBlacklist() {
+        return authRedisProperties.getBlacklistStorage().getLayout() == AuthRedisProperties.BlacklistStorage.Layout.DIGEST;
+    }
+
+    private boolean readLegacyBlacklist() {
+        return isDigestBlacklist() && authRedisProperties.getBlacklistStorage().isReadLegacy();
+    }
+
+    /**
+     * items를 batch-size 단위로 잘라 pipeline으로 실행하고 항목별 결과를 모은다.
+     * 항목별 결과를 알아야 하므로 SADD m1 m2 ... 처럼 한 명령에 몰아넣지 않고 항목당 명령 하나씩 쌓는다.
+     */
+    private <T> BulkOperationResult executePipelinedInBatches(
+        String operation,
+        Collection<T> items,
+        Function<T, String> itemId,
+        BiConsumer<RedisConnection, T> command
+    ) {
+        BulkOperationResult result = new BulkOperationResult();
+        for (List<T> batch : partition(items)) {
+            List<Object> replies;
+            try {
+                replies = redisMetrics.record(operation, batch.size() + " items",
+                    () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                        batch.forEach(item -> command.accept(connection, item));
+                        return null;
+                    }));
+            } catch (DataAccessException e) {
+                log.warn("Bulk batch failed ({} items)", batch.size(), e);
+                batch.forEach(item -> result.record(itemId.apply(item), BulkOperationResult.Status.FAILED));
+                continue;
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                result.record(itemId.apply(batch.get(i)), BulkOperationResult.Status.of(replies.get(i)));
+            }
+        }
+        return result;
+    }
+
+    private <T> List<List<T>> partition(Collection<T> items) {
+        int batchSize = authRedisProperties.getBulk().getBatchSize();
+        List<T> list = new ArrayList<>(items);
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += batchSize) {
+            batches.add(list.subList(from, Math.min(from + batchSize, list.size())));
+        }
+        return batches;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
     }
 
     // ------------------------------------------------------------
 
 
     public void set(String key, Object value, long timeoutSeconds) {
-        redisTemplate.opsForValue().set(key, value, Duration.ofSeconds(timeoutSeconds));
+        redisMetrics.run("value.set", key, () -> redisTemplate.opsForValue().set(key, value, Duration.ofSeconds(timeoutSeconds)));
     }
     
     public Object get(String key) {
-        return redisTemplate.opsForValue().get(key);
+        return redisMetrics.record("value.get", key, () -> readOnlyRedisTemplate.opsForValue().get(key));
     }
     
     public boolean delete(String key) {
-        return Boolean.TRUE.equals(redisTemplate.delete(key));
+        return redisMetrics.record("value.delete", key, () -> Boolean.TRUE.equals(redisTemplate.delete(key)));
     }
     
     public boolean hasKey(String key) {
-        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+        return redisMetrics.record("value.exists", key, () -> Boolean.TRUE.equals(readOnlyRedisTemplate.hasKey(key)));
     }
 }
@@ -0,0 +1,217 @@
+package com.spirngboot.redis.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spirngboot.redis.config.RedisConfig;
+import com.spirngboot.redis.metrics.RedisOperationMetrics;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * userSession Hash 저장소
+ *
+ * 세션은 auth:session:{memberId} Hash 하나에 필드별로 저장한다. 요청마다 세션 전체(30개 필드)를 가져와서 두 개만 쓰는건 낭비라서
+ * 조회는 필요한 필드만 HMGET 하고, 수정도 바뀐 필드만 HSET 한다.
+ *
+ * 만료는 RedisConstants.TTL.USER_SESSION 기준 sliding 방식이다.
+ * - 쓰기 : HSET + EXPIRE 를 한 pipeline으로 보낸다. (왕복 한번)
+ * - 읽기 : 마지막 연장 후 touch-interval이 지났을 때만 HMGET과 같은 pipeline에 EXPIRE를 끼워 보낸다. (매 요청마다 쓰기 명령을 보내지 않도록)
+ *   마지막 연장 시각은 L1과 별개로 항상 켜져 있는 touches 캐시(touch-interval 뒤 만료, touch-maximum-size 제한)에 둔다.
+ *   L1을 꺼도, L1 엔트리가 l1-ttl로 먼저 빠져도 연장 간격은 그대로 지켜진다. (밀려서 빠진 세션은 EXPIRE를 한 번 더 보낼 뿐)
+ *
+ * l1-enabled를 켜면 자주 쓰는 세션의 필드를 로컬(Caffeine)에 l1-ttl 동안 들고 있는다.
+ * 이 노드의 변경은 바로 반영되지만 다른 노드의 변경은 l1-ttl 만큼 늦게 보일 수 있다. (무효화 이벤트 없음)
+ */
+@Component
+public class SessionStore {
+    // HMGET에서 없다고 확인된 필드 표시 (ConcurrentHashMap은 null을 못 담는다)
+    private static final Object ABSENT = new Object();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, Object> readOnlyRedisTemplate;
+    private final RedisKeyGenerator keyGenerator;
+    private final RedisOperationMetrics redisMetrics;
+    private final boolean l1Enabled;
+    private final Cache<String, LocalSession> l1;
+    // 최근 touch-interval 안에 만료를 연장한 세션 키, 엔트리가 없으면 연장할 때가 된 것
+    private final Cache<String, Boolean> touches;
+
+    public SessionStore(
+        RedisTemplate<String, Object> redisTemplate,
+        @Qualifier(RedisConfig.READ_ONLY_REDIS_TEMPLATE) RedisTemplate<String, Object> readOnlyRedisTemplate,
+        RedisKeyGenerator keyGenerator,
+        RedisOperationMetrics redisMetrics,
+        AuthRedisProperties authRedisProperties,
+        MeterRegistry meterRegistry
+    ) {
+        AuthRedisProperties.Session settings = authRedisProperties.getSession();
+        this.redisTemplate = redisTemplate;
+        this.readOnlyRedisTemplate = readOnlyRedisTemplate;
+        this.keyGenerator = keyGenerator;
+        this.redisMetrics = redisMetrics;
+        this.l1Enabled = settings.isL1Enabled();
+        this.l1 = Caffeine.newBuilder()
+            .maximumSize(settings.getL1MaximumSize())
+            .expireAfterWrite(settings.getL1Ttl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, l1, "auth.session.l1");
+        this.touches = Caffeine.newBuilder()
+            .maximumSize(settings.getTouchMaximumSize())
+            .expireAfterWrite(settings.getTouchInterval())
+            .build();
+    }
+
+    /**
+     * 필드 일부 저장 (없던 세션이면 새로 만든다) + 만료 연장
+     * null 값은 저장할 수 없으므로 필드를 지울 때는 remove를 쓰자.
+     */
+    public void put(String memberId, Map<String, Object> fields) {
+        if (fields.isEmpty()) {
+            return;
+        }
+        String key = keyGenerator.userSession(memberId);
+        byte[] rawKey = serializeKey(key);
+        Map<byte[], byte[]> rawFields = new LinkedHashMap<>();
+        fields.forEach((field, value) -> rawFields.put(serializeHashKey(field), serializeHashValue(value)));
+
+        redisMetrics.run("session.put", key, () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hMSet(rawKey, rawFields);
+            connection.keyCommands().expire(rawKey, RedisConstants.TTL.USER_SESSION);
+            return null;
+        }));
+        touches.put(key, Boolean.TRUE);
+
+        LocalSession local = l1Enabled ? l1.getIfPresent(key) : null;
+        if (local != null) {
+            local.fields.putAll(fields);
+        }
+    }
+
+    public void put(String memberId, String field, Object value) {
+        put(memberId, Map.of(field, value));
+    }
+
+    /**
+     * 요청한 필드만 조회한다. 세션에 없는 필드는 결과 Map에서 빠진다.
+     * L1에 없는 필드만 HMGET 하고, 만료 연장이 필요하면 같은 pipeline에 EXPIRE를 같이 보낸다.
+     */
+    public Map<String, Object> get(String memberId, String... fields) {
+        String key = keyGenerator.userSession(memberId);
+        return redisMetrics.record("session.get", key, () -> {
+            LocalSession local = l1Enabled ? l1.get(key, k -> new LocalSession()) : new LocalSession();
+            List<String> missing = new ArrayList<>();
+            for (String field : fields) {
+                if (!local.fields.containsKey(field)) {
+                    missing.add(field);
+                }
+            }
+
+            // 동시에 들어온 요청 중 하나만 EXPIRE를 보낸다.
+            boolean touch = touches.asMap().putIfAbsent(key, Boolean.TRUE) == null;
+            if (!missing.isEmpty() || touch) {
+                try {
+                    fetch(key, missing, touch, local);
+                } catch (RuntimeException e) {
+                    // 연장을 못 보냈으면 다음 조회에서 다시 보낸다.
+                    if (touch) {
+                        touches.invalidate(key);
+                    }
+                    throw e;
+                }
+            }
+            return local.view(fields);
+        });
+    }
+
+    // 필드 삭제 (세션 자체는 남는다)
+    public void remove(String memberId, String... fields) {
+        if (fields.length == 0) {
+            return;
+        }
+        String key = keyGenerator.userSession(memberId);
+        Object[] hashKeys = fields;
+        redisMetrics.run("session.remove", key, () -> redisTemplate.opsForHash().delete(key, hashKeys));
+
+        LocalSession local = l1Enabled ? l1.getIfPresent(key) : null;
+        if (local != null) {
+            for (String field : fields) {
+                local.fields.put(field, ABSENT);
+            }
+        }
+    }
+
+    // 세션 전체 삭제 (로그아웃)
+    public void invalidate(String memberId) {
+        String key = keyGenerator.userSession(memberId);
+        redisMetrics.run("session.invalidate", key, () -> redisTemplate.delete(key));
+        l1.invalidate(key);
+        touches.invalidate(key);
+    }
+
+    private void fetch(String key, List<String> missing, boolean touch, LocalSession local) {
+        byte[] rawKey = serializeKey(key);
+        List<Object> replies = readOnlyRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            if (!missing.isEmpty()) {
+                connection.hashCommands().hMGet(rawKey, missing.stream().map(this::serializeHashKey).toArray(byte[][]::new));
+            }
+            // EXPIRE는 쓰기 명령이라 replica 읽기 설정이어도 Lettuce가 primary로 보낸다.
+            if (touch) {
+                connection.keyCommands().expire(rawKey, RedisConstants.TTL.USER_SESSION);
+            }
+            return null;
+        });
+
+        if (!missing.isEmpty() && replies.get(0) instanceof List<?> values) {
+            for (int i = 0; i < missing.size(); i++) {
+                Object value = values.get(i);
+                local.fields.put(missing.get(i), value == null ? ABSENT : value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeHashKey(String field) {
+        return ((RedisSerializer<String>) redisTemplate.getHashKeySerializer()).serialize(field);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeHashValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashValueSerializer()).serialize(value);
+    }
+
+    // 세션 하나의 로컬 사본, 요청받은 필드만 채워진다.
+    private static final class LocalSession {
+        private final Map<String, Object> fields = new ConcurrentHashMap<>();
+
+        private Map<String, Object> view(String... names) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            for (String name : names) {
+                Object value = fields.get(name);
+                if (value != null && value != ABSENT) {
+                    view.put(name, value);
+                }
+            }
+            return view;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- 만료된 토큰을 chunk 단위로 원자적으로 꺼내서(pop) 처리중(processing) Sorted Set으로 옮긴다.
+-- 스크립트 전체가 원자적으로 실행되므로 여러 인스턴스가 동시에 돌아도 같은 멤버를 두 번 가져가지 않는다.
+-- KEYS[1] : token:expiry
+-- KEYS[2] : token:expiry:processing
+-- ARGV[1] : 현재 시각 (ms)
+-- ARGV[2] : 한번에 가져올 최대 개수
+-- ARGV[3] : 처리 lease 만료 시각 (ms), 이 시각까지 ack가 없으면 다시 token:expiry로 돌려보낸다.
+local members = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+if #members > 0 then
+    redis.call('ZREM', KEYS[1], unpack(members))
+    for _, member in ipairs(members) do
+        redis.call('ZADD', KEYS[2], ARGV[3], member)
+    end
+end
+return members
@@ -0,0 +1,4 @@
+-- 키 하나의 메모리 사용량 (블랙리스트 레이아웃 리포트용)
+-- KEYS[1] : 측정할 키
+-- 반환 : MEMORY USAGE 결과(바이트), 키가 없으면 0
+return redis.call('MEMORY', 'USAGE', KEYS[1], 'SAMPLES', '0') or 0
@@ -0,0 +1,13 @@
+-- lease가 만료된(처리 도중 인스턴스가 죽은) 멤버를 다시 token:expiry로 돌려보낸다.
+-- KEYS[1] : token:expiry:processing
+-- KEYS[2] : token:expiry
+-- ARGV[1] : 현재 시각 (ms)
+-- ARGV[2] : 한번에 돌려보낼 최대 개수
+local members = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+if #members > 0 then
+    redis.call('ZREM', KEYS[1], unpack(members))
+    for _, member in ipairs(members) do
+        redis.call('ZADD', KEYS[2], ARGV[1], member)
+    end
+end
+return #members
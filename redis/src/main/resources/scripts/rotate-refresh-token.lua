@@ -0,0 +1,82 @@
+-- Refresh Token 원자적 교체 (compare-and-set + 이전 토큰 블랙리스트)
+-- KEYS[1] : auth:refresh:{memberId}
+-- KEYS[2] : auth:blacklist:{이전 토큰 또는 digest} (선택, 클러스터 모드에서는 슬롯이 달라서 넘기지 않는다)
+-- ARGV[1] : 클라이언트가 제시한 refresh token
+-- ARGV[2] : 새 RefreshToken 직렬화 값
+-- ARGV[3] : 새 refresh token TTL (ms)
+-- ARGV[4] : 이전 토큰 블랙리스트 값 (TOKEN 레이아웃은 TokenBlacklist 직렬화 값, DIGEST 레이아웃은 등록 시각(ms))
+-- ARGV[5] : 블랙리스트 TTL (ms)
+-- 반환 : 1 교체됨, 0 토큰 불일치(재사용 / 동시 요청), -1 저장된 토큰 없음
+
+local function read_varint(value, pos)
+    local result, multiplier = 0, 1
+    while true do
+        local b = string.byte(value, pos)
+        if b == nil then
+            return nil, pos
+        end
+        pos = pos + 1
+        result = result + (b % 128) * multiplier
+        if b < 128 then
+            return result, pos
+        end
+        multiplier = multiplier * 128
+    end
+end
+
+-- CompactTokenRedisSerializer 포맷 : [0xB1][VERSION=1][TYPE=1(RefreshToken)][memberId][refreshToken]...
+-- 문자열은 varint(길이 + 1) + UTF-8, 0은 null
+local function compact_token(value)
+    if string.byte(value, 2) ~= 1 or string.byte(value, 3) ~= 1 then
+        return nil
+    end
+    local length, pos = read_varint(value, 4)
+    if length == nil then
+        return nil
+    end
+    if length > 0 then
+        pos = pos + length - 1
+    end
+    length, pos = read_varint(value, pos)
+    if length == nil or length == 0 then
+        return nil
+    end
+    return string.sub(value, pos, pos + length - 2)
+end
+
+-- GenericJackson2JsonRedisSerializer(default typing) 포맷 : ["클래스명", { ...필드 }] 또는 { ...필드 }
+local function json_token(value)
+    local ok, decoded = pcall(cjson.decode, value)
+    if not ok or type(decoded) ~= 'table' then
+        return nil
+    end
+    if type(decoded[2]) == 'table' then
+        decoded = decoded[2]
+    end
+    if type(decoded.refreshToken) ~= 'string' then
+        return nil
+    end
+    return decoded.refreshToken
+end
+
+local stored = redis.call('GET', KEYS[1])
+if not stored then
+    return -1
+end
+
+local stored_token
+if string.byte(stored, 1) == 0xB1 then
+    stored_token = compact_token(stored)
+else
+    stored_token = json_token(stored)
+end
+
+if stored_token ~= ARGV[1] then
+    return 0
+end
+
+redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+if KEYS[2] then
+    redis.call('SET', KEYS[2], ARGV[4], 'PX', ARGV[5])
+end
+return 1
@@ -0,0 +1,31 @@
+-- 분산 token bucket (허용량 선점)
+-- KEYS[1] : auth:ratelimit:{limit}:{식별자} (Hash : tokens, ts)
+-- ARGV[1] : 버킷 크기
+-- ARGV[2] : 초당 채워지는 양
+-- ARGV[3] : 요청하는 허용량 (노드가 로컬에서 나눠 쓸 만큼 한번에 가져간다)
+-- 반환 : 실제로 내준 허용량 (0이면 거부)
+-- 시간은 redis TIME을 쓴다. 노드마다 시계가 달라도 버킷 계산은 한 곳에서만 한다.
+
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+local granted = math.min(requested, math.floor(tokens))
+tokens = tokens - granted
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+-- 가득 찰 때까지 걸리는 시간이 지나면 키가 없어도 결과가 같으므로 지운다.
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000) + 1000)
+return granted
@@ -0,0 +1,18 @@
+-- Role 비트맵 비트 변경 + 변경 로그 기록
+-- KEYS[1] : auth:role-bitmap:{role}
+-- KEYS[2] : auth:role-bitmap:{role}:changes (Stream)
+-- ARGV[1] : 1 추가, 0 제거
+-- ARGV[2] : 변경 로그 최대 길이
+-- ARGV[3..] : memberId (비트 오프셋), 여러 개면 한번에 반영
+-- 반환 : 실제로 바뀐 비트 수 (변경 전 값이 ARGV[1]과 같으면 바뀐게 없으므로 로그도 남기지 않는다)
+
+local bit = tonumber(ARGV[1])
+local changed = 0
+for i = 3, #ARGV do
+    local previous = redis.call('SETBIT', KEYS[1], ARGV[i], bit)
+    if previous ~= bit then
+        redis.call('XADD', KEYS[2], 'MAXLEN', '~', ARGV[2], '*', 'm', ARGV[i], 'b', ARGV[1])
+        changed = changed + 1
+    end
+end
+return changed
@@ -0,0 +1,114 @@
+package com.spirngboot.redis.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.spirngboot.redis.audit.TokenAuditWriter;
+import com.spirngboot.redis.cache.BlacklistBloomFilter;
+import com.spirngboot.redis.cache.BlacklistNearCache;
+import com.spirngboot.redis.config.ObjectMapperConfig;
+import com.spirngboot.redis.dto.RefreshTokenRotationResult;
+import com.spirngboot.redis.listener.TokenRevocationStream;
+import com.spirngboot.redis.metrics.RedisOperationMetrics;
+import com.spirngboot.redis.serializer.CompactTokenRedisSerializer;
+import com.spirngboot.redis.serializer.RedisKeySerializer;
+import com.spirngboot.redis.settings.AuthRedisProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * setRefreshToken으로 발급한 값을 rotate-refresh-token.lua가 읽을 수 있는지 확인한다. (json / compact 두 포맷 모두)
+ * 실제 redis가 필요하다. -Dtest.redis.host / -Dtest.redis.port (기본 localhost:6379)에 접속이 안 되면 건너뛴다.
+ */
+class RedisUtilRefreshTokenRotationTest {
+    private static final String HOST = System.getProperty("test.redis.host", "localhost");
+    private static final int PORT = Integer.getInteger("test.redis.port", 6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisUtil redisUtil;
+    private String memberId;
+
+    @AfterEach
+    void tearDown() {
+        if (redisUtil != null) {
+            redisUtil.deleteRefreshToken(memberId);
+        }
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void issuedRefreshTokenCanBeRotatedOnce(boolean writeCompact) {
+        setUp(writeCompact);
+
+        redisUtil.setRefreshToken(memberId, "refresh-1");
+        assertEquals(RefreshTokenRotationResult.ROTATED, redisUtil.rotateRefreshToken(memberId, "refresh-1", "refresh-2"));
+        assertTrue(redisUtil.validateRefreshToken(memberId, "refresh-2"));
+
+        // 이미 교체된 토큰을 다시 쓰면 재사용으로 본다.
+        assertEquals(RefreshTokenRotationResult.MISMATCH, redisUtil.rotateRefreshToken(memberId, "refresh-1", "refresh-3"));
+        assertTrue(redisUtil.validateRefreshToken(memberId, "refresh-2"));
+    }
+
+    private void setUp(boolean writeCompact) {
+        assumeTrue(reachable(), "redis is not reachable at " + HOST + ":" + PORT);
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(HOST, PORT));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        AuthRedisProperties properties = new AuthRedisProperties();
+        RedisKeyGenerator keyGenerator = new RedisKeyGenerator(properties);
+        RedisSerializer<Object> valueSerializer = new CompactTokenRedisSerializer(
+            new GenericJackson2JsonRedisSerializer(new ObjectMapperConfig().objectMapper()), writeCompact);
+        RedisTemplate<String, Object> redisTemplate = redisTemplate(valueSerializer, true);
+        RedisTemplate<String, Object> readOnlyRedisTemplate = redisTemplate(valueSerializer, false);
+        BlacklistNearCache nearCache = new BlacklistNearCache(properties, new SimpleMeterRegistry());
+        BlacklistBloomFilter bloomFilter = new BlacklistBloomFilter(
+            properties, new RedisKeyScanner(readOnlyRedisTemplate), keyGenerator, new SimpleMeterRegistry());
+
+        redisUtil = new RedisUtil(redisTemplate, readOnlyRedisTemplate, keyGenerator, nearCache, bloomFilter, properties,
+            new RedisOperationMetrics(properties, new SimpleMeterRegistry()),
+            new TokenAuditWriter(redisTemplate, keyGenerator, properties, new SimpleMeterRegistry()),
+            new TokenRevocationStream(redisTemplate, keyGenerator, nearCache, bloomFilter, properties, new SimpleMeterRegistry()));
+        memberId = "rotation-test-" + UUID.randomUUID();
+    }
+
+    private RedisTemplate<String, Object> redisTemplate(RedisSerializer<Object> valueSerializer, boolean transactional) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisKeySerializer.INSTANCE);
+        template.setValueSerializer(valueSerializer);
+        template.setHashKeySerializer(RedisKeySerializer.INSTANCE);
+        template.setHashValueSerializer(valueSerializer);
+        template.setEnableTransactionSupport(transactional);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static boolean reachable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(HOST, PORT), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -8,40 +8,59 @@ import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 
 import com.springboot.websocket.handler.AuthenticationWebSocketHandler;
-import com.springboot.websocket.handler.CompressionLibraryWebSocketHandler;
 import com.springboot.websocket.handler.CompressionMessageWebSocketHandler;
 import com.springboot.websocket.handler.CustomWebSocketHandler;
 import com.springboot.websocket.handler.RateLimitedWebSocketHandler;
 import com.springboot.websocket.interceptor.JwtHandshakeInterceptor;
+import com.springboot.websocket.service.ChannelSubscriptionIndex;
+import com.springboot.websocket.service.WebSocketBroadcaster;
+import com.springboot.websocket.utils.PayloadCompressor;
 import com.springboot.websocket.utils.WebSocketMessageConverter;
+import com.springboot.websocket.utils.WebSocketRateLimiter;
 
 @Configuration
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
-    private final CustomWebSocketHandler webSocketHandler;
     private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final WebSocketMessageConverter messageConverter;
+    private final PayloadCompressor payloadCompressor;
+    private final WebSocketRateLimiter rateLimiter;
+    private final WebSocketBroadcaster broadcaster;
+    private final ChannelSubscriptionIndex subscriptionIndex;
 
-    public WebSocketConfig(CustomWebSocketHandler webSocketHandler, JwtHandshakeInterceptor jwtHandshakeInterceptor) {
-        this.webSocketHandler = webSocketHandler;
+    public WebSocketConfig(
+        JwtHandshakeInterceptor jwtHandshakeInterceptor,
+        WebSocketMessageConverter messageConverter,
+        PayloadCompressor payloadCompressor,
+        WebSocketRateLimiter rateLimiter,
+        WebSocketBroadcaster broadcaster,
+        ChannelSubscriptionIndex subscriptionIndex
+    ) {
         this.jwtHandshakeInterceptor = jwtHandshakeInterceptor;
+        this.messageConverter = messageConverter;
+        this.payloadCompressor = payloadCompressor;
+        this.rateLimiter = rateLimiter;
+        this.broadcaster = broadcaster;
+        this.subscriptionIndex = subscriptionIndex;
     }
 
+    // 데코레이터 체인(webSocketHandler 빈)을 등록한다. CustomWebSocketHandler만 등록하면 인증 / 속도 제한 / 압축을 전부 건너뛴다.
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(webSocketHandler, "/ws")
+        registry.addHandler(webSocketHandler(), "/ws")
                 .addInterceptors(jwtHandshakeInterceptor)
                 .setAllowedOrigins("*");
     }
 
     @Bean
-    public WebSocketHandler webSocketHandler(WebSocketMessageConverter messageConverter) {
+    public WebSocketHandler webSocketHandler() {
         return new AuthenticationWebSocketHandler(
             new RateLimitedWebSocketHandler(
                 new CompressionMessageWebSocketHandler(
-                    new CompressionLibraryWebSocketHandler(
-                        new CustomWebSocketHandler(messageConverter)
-                    )
-                ), 10)
+                    new CustomWebSocketHandler(messageConverter, broadcaster, subscriptionIndex),
+                    payloadCompressor
+                ), rateLimiter, messageConverter, broadcaster),
+            messageConverter, broadcaster
         );
     }
 }
@@ -0,0 +1,65 @@
+package com.springboot.websocket.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 바이너리 프레임에서 code 문자열 대신 보내는 1바이트 id
+ *
+ * id는 클라이언트와 맞춰둔 값이므로 한 번 정하면 바꾸지 않는다. 새 코드는 뒤에 다음 번호로 추가하자.
+ * 0은 "목록에 없는 코드"용으로 비워둔다. (이 경우 code 문자열을 그대로 보낸다)
+ * SUBSCRIBE / UNSUBSCRIBE / PUBLISH / BROADCAST는 클라이언트 -> 서버 방향 명령이다.
+ */
+public enum MessageCode {
+    CONNECTION_ESTABLISHED(1),
+    CONNECTION_CLOSED(2),
+    JSON_RECEIVED(3),
+    UNSUPPORTED_FORMAT(4),
+    PROCESSING_ERROR(5),
+    BINARY_PROCESS_ERROR(6),
+    RATE_LIMITED(7),
+    AUTHENTICATION_REQUIRED(8),
+    UNAUTHORIZED(9),
+    SUBSCRIBED(10),
+    UNSUBSCRIBED(11),
+    SUBSCRIPTION_LIMIT_EXCEEDED(12),
+    INVALID_CHANNEL(13),
+    NOT_SUBSCRIBED(14),
+    CHANNEL_MESSAGE(15),
+    SUBSCRIBE(16),
+    UNSUBSCRIBE(17),
+    PUBLISH(18),
+    BROADCAST(19),
+    FORBIDDEN(20);
+
+    public static final int UNKNOWN_ID = 0;
+
+    private static final MessageCode[] BY_ID = new MessageCode[256];
+    private static final Map<String, MessageCode> BY_NAME = new HashMap<>();
+
+    static {
+        for (MessageCode code : values()) {
+            BY_ID[code.id] = code;
+            BY_NAME.put(code.name(), code);
+        }
+    }
+
+    private final int id;
+
+    MessageCode(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    // 목록에 없으면 null
+    public static MessageCode fromId(int id) {
+        return id > 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+
+    public static MessageCode fromName(String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
+}
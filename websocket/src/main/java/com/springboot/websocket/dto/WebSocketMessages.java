@@ -16,5 +16,6 @@ public class WebSocketMessages {
     private String code;
     private String message;
     private String data;
+    private String channel;
     private String sessionId;
 }
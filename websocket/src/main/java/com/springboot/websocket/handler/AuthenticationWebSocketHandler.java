@@ -2,18 +2,31 @@ package com.springboot.websocket.handler;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.web.socket.CloseStatus;
-import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
 import com.springboot.websocket.dto.WebSocketMessages;
+import com.springboot.websocket.service.WebSocketBroadcaster;
+import com.springboot.websocket.utils.WebSocketMessageConverter;
 
+/**
+ * 인증 확인 단계
+ * 에러 응답은 브로드캐스트와 동시에 쓰지 않도록 WebSocketBroadcaster가 감싼 세션으로 보낸다. (등록 전이면 원래 세션)
+ */
 public class AuthenticationWebSocketHandler extends WebSocketHandlerDecorator{
+    private final WebSocketMessageConverter messageConverter;
+    private final WebSocketBroadcaster broadcaster;
 
-    public AuthenticationWebSocketHandler(WebSocketHandler delegate) {
+    public AuthenticationWebSocketHandler(
+        WebSocketHandler delegate,
+        WebSocketMessageConverter messageConverter,
+        WebSocketBroadcaster broadcaster
+    ) {
         super(delegate);
+        this.messageConverter = messageConverter;
+        this.broadcaster = broadcaster;
     }
     
     @Override
@@ -51,10 +64,6 @@ public class AuthenticationWebSocketHandler extends WebSocketHandlerDecorator{
                 .sessionId(session.getId())
                 .build();
 
-        session.sendMessage(new TextMessage(convertWebSocketMessageToJson(errorMsg)));
-    }
-
-    private String convertWebSocketMessageToJson(WebSocketMessages message) {
-        return "";
+        broadcaster.sessionOf(session).sendMessage(messageConverter.convert(session, errorMsg));
     }
 }
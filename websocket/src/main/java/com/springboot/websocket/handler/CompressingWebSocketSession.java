@@ -0,0 +1,43 @@
+package com.springboot.websocket.handler;
+
+import java.io.IOException;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import com.springboot.websocket.utils.PayloadCompressor;
+
+/**
+ * 압축을 협상한 세션용 데코레이터
+ * min-size 이상인 TextMessage는 압축해서 BinaryMessage(DEFLATE_FRAME)로 보내고, 작아지지 않으면 원본 그대로 보낸다.
+ * 브로드캐스트는 WebSocketBroadcaster가 미리 압축한 BinaryMessage로 넘기므로 여기서는 그대로 보낸다.
+ * 압축해도 작아지지 않은 브로드캐스트는 UncompressedText로 오므로 세션마다 다시 압축하지 않고 원본 TextMessage로 보낸다.
+ */
+public class CompressingWebSocketSession extends WebSocketSessionDecorator {
+    private final PayloadCompressor compressor;
+
+    public CompressingWebSocketSession(WebSocketSession delegate, PayloadCompressor compressor) {
+        super(delegate);
+        this.compressor = compressor;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (message instanceof PayloadCompressor.UncompressedText uncompressed) {
+            super.sendMessage(uncompressed.getPayload());
+            return;
+        }
+        if (message instanceof TextMessage textMessage) {
+            byte[] compressed = compressor.compress(textMessage);
+            if (compressed != null) {
+                // 압축 결과 배열은 세션끼리 공유하므로 ByteBuffer(position)는 세션마다 새로 감싼다.
+                super.sendMessage(new BinaryMessage(compressed));
+                return;
+            }
+        }
+        super.sendMessage(message);
+    }
+}
@@ -1,69 +1,104 @@
 package com.springboot.websocket.handler;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
+import com.springboot.websocket.utils.PayloadCompressor;
+import com.springboot.websocket.utils.WebSocketMessageConverter;
+
+/**
+ * 메시지 압축 단계
+ *
+ * 1순위는 전송 레벨 permessage-deflate 이다. Tomcat은 클라이언트가 Sec-WebSocket-Extensions로 요청하면 알아서 협상하므로
+ * 그 세션은 여기서 아무것도 하지 않는다. (두 번 압축하면 CPU만 쓴다)
+ * permessage-deflate를 못 쓰는 클라이언트는 핸드셰이크 헤더 X-WebSocket-Compression: deflate 로 앱 레벨 압축을 요청할 수 있다.
+ * - 송신 : 세션을 CompressingWebSocketSession으로 감싸서 뒤쪽 핸들러(브로드캐스트 포함)가 보내는 큰 TextMessage를 압축한다.
+ * - 수신 : DEFLATE_FRAME 마커로 시작하는 BinaryMessage는 풀어서 TextMessage로 넘긴다. 바이너리 서브프로토콜(v1.binary) 세션은
+ *   풀린 바이트가 바이너리 프레임이므로 BinaryMessage로 다시 감싸서 넘긴다.
+ *
+ * 뒤쪽 핸들러는 세션 객체를 Set에 들고 있으므로 연결부터 종료까지 항상 같은 (감싼) 세션 객체를 넘겨야 된다.
+ */
 public class CompressionMessageWebSocketHandler extends WebSocketHandlerDecorator{
+    private static final Logger logger = LoggerFactory.getLogger(CompressionMessageWebSocketHandler.class);
+    public static final String COMPRESSION_HEADER = "X-WebSocket-Compression";
+    private static final String DEFLATE = "deflate";
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
 
-    // private final Inflater inflater = new Inflater();
-    // private final byte[] buffer = new byte[1024];
+    private final PayloadCompressor compressor;
+    private final Map<String, WebSocketSession> compressingSessions = new ConcurrentHashMap<>();
 
-    public CompressionMessageWebSocketHandler(WebSocketHandler delegate) {
+    public CompressionMessageWebSocketHandler(WebSocketHandler delegate, PayloadCompressor compressor) {
         super(delegate);
+        this.compressor = compressor;
     }
 
     @Override
-    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
-        if (message instanceof TextMessage) {
-            TextMessage textMessage = (TextMessage) message;
-            String payload = textMessage.getPayload();
-
-            // 메시지 압축
-            String compressedPayload = compress(payload);
-
-            // 압축된 메시지로 새로운 TextMessage 생성
-            TextMessage compressedMessage = new TextMessage(compressedPayload);
-
-            // 메시지 압축 해제
-            String decompressedPayload = decompress(compressedPayload);
-
-            TextMessage decompressedMessage = new TextMessage(decompressedPayload);
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (negotiated(session)) {
+            session.getAttributes().put(PayloadCompressor.COMPRESSION_ATTRIBUTE, Boolean.TRUE);
+            WebSocketSession compressing = new CompressingWebSocketSession(session, compressor);
+            compressingSessions.put(session.getId(), compressing);
+            super.afterConnectionEstablished(compressing);
+        } else {
+            super.afterConnectionEstablished(session);
+        }
+    }
 
-            getDelegate().handleMessage(session, compressedMessage);
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        WebSocketSession target = compressingSessions.getOrDefault(session.getId(), session);
+        if (message instanceof BinaryMessage binaryMessage && compressor.isEnabled()
+                && PayloadCompressor.isCompressedFrame(binaryMessage.getPayload())) {
+            byte[] payload;
+            try {
+                payload = compressor.decompress(binaryMessage.getPayload());
+            } catch (DataFormatException e) {
+                logger.warn("압축 해제 실패, 연결을 종료합니다. Session ID: {}", session.getId(), e);
+                session.close(CloseStatus.BAD_DATA);
+                return;
+            }
+            WebSocketMessage<?> inflated = WebSocketMessageConverter.isBinaryProtocol(session)
+                ? new BinaryMessage(payload)
+                : new TextMessage(new String(payload, StandardCharsets.UTF_8));
+            super.handleMessage(target, inflated);
         } else {
-            getDelegate().handleMessage(session, message);
+            super.handleMessage(target, message);
         }
     }
 
-    private String compress(String message) throws IOException {
-        // Deflater를 사용한 압축 로직
-        // ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        // try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(outputStream)) {
-        //     deflaterOutputStream.write(message.getBytes(StandardCharsets.UTF_8));
-        // }
-        // return Base64.getEncoder().encodeToString(outputStream.toByteArray());
-        return null;
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        super.handleTransportError(compressingSessions.getOrDefault(session.getId(), session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        WebSocketSession target = compressingSessions.remove(session.getId());
+        super.afterConnectionClosed(target != null ? target : session, closeStatus);
     }
 
-    private String decompress(String message) throws IOException {
-        // Inflater를 사용한 압축 해제 로직
-        // byte[] compressedBytes = Base64.getDecoder().decode(message);
-        // ByteArrayInputStream inputStream = new ByteArrayInputStream(compressedBytes);
-        // ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        // try (InflaterInputStream inflaterInputStream = new InflaterInputStream(inputStream, inflater)) {
-        //     int length;
-        //     while ((length = inflaterInputStream.read(buffer)) > 0) {
-        //         outputStream.write(buffer, 0, length);
-        //     }
-        // } finally {
-        //     inflater.reset(); // Inflater 재사용을 위해 리셋
-        // }
-        // return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
-        return null;
+    private boolean negotiated(WebSocketSession session) {
+        if (!compressor.isEnabled() || !DEFLATE.equalsIgnoreCase(session.getHandshakeHeaders().getFirst(COMPRESSION_HEADER))) {
+            return false;
+        }
+        for (WebSocketExtension extension : session.getExtensions()) {
+            if (PERMESSAGE_DEFLATE.equalsIgnoreCase(extension.getName())) {
+                return false;
+            }
+        }
+        return true;
     }
 }
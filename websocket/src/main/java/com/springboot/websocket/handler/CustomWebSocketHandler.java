@@ -1,19 +1,23 @@
 package com.springboot.websocket.handler;
 
-import java.nio.ByteBuffer;
-import java.util.Collections;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
+import com.springboot.websocket.dto.MessageCode;
 import com.springboot.websocket.dto.WebSocketMessages;
+import com.springboot.websocket.entity.RoleType;
+import com.springboot.websocket.service.ChannelSubscriptionIndex;
+import com.springboot.websocket.service.WebSocketBroadcaster;
 import com.springboot.websocket.utils.WebSocketMessageConverter;
 
 import lombok.RequiredArgsConstructor;
@@ -49,21 +53,38 @@ import lombok.RequiredArgsConstructor;
  * 기존의 WebSocketHandler를 래핑하여 추가적인 기능을 제공하는 데 사용
  * 예를 들어, 보안 검증, 로깅, 에러 처리 등의 기능을 추가하여 코드의 재사용성을 높일 수 있음.
  * 즉 AbstractWebSocketHandler로 구현을 하되 추가적인 보안 검증, 로깅, 에러처리와 같은 로직은 WebSocketHandlerDecorator를 구현하는게 책임 분리에 있어서 좋을 듯
+ *
+ * 메시지 포맷은 연결마다 서브프로토콜로 정한다. (WebSocketMessageConverter 참고)
+ * - v1.json(기본) : "TEXT|" 등 접두사 텍스트 명령을 받고 JSON으로 응답
+ * - v1.binary : BinaryMessageCodec 프레임으로 명령을 받고 같은 프레임으로 응답, 텍스트 명령도 그대로 받는다.
+ * 브로드캐스트 진입점은 채널 PUBLISH(구독 세션)와 관리자 전용 BROADCAST(전체 세션) 두 가지다.
+ * DefaultHandshakeHandler는 데코레이터를 벗겨서 SubProtocolCapable인지 보므로 체인 안쪽인 여기서 구현한다.
  */
 
 @RequiredArgsConstructor
-public class CustomWebSocketHandler extends AbstractWebSocketHandler {
+public class CustomWebSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
     private static final Logger logger = LoggerFactory.getLogger(CustomWebSocketHandler.class);
+    private static final String TEXT_PREFIX = "TEXT|";
+    // 채널 제어 메시지 : SUBSCRIBE|{channel}, UNSUBSCRIBE|{channel}, PUBLISH|{channel}|{data}
+    private static final String SUBSCRIBE_PREFIX = "SUBSCRIBE|";
+    private static final String UNSUBSCRIBE_PREFIX = "UNSUBSCRIBE|";
+    private static final String PUBLISH_PREFIX = "PUBLISH|";
+    // 전체 공지 : BROADCAST|{data}, 모든 세션에 보내므로 관리자만 쓸 수 있다.
+    private static final String BROADCAST_PREFIX = "BROADCAST|";
+    private static final String AUTHENTICATION_ATTRIBUTE = "authentication";
+    private final WebSocketMessageConverter messageConverter;
     /**
-     * WebSocketSession들을 저장하고 관리하기 위한 Set
-     * ConcurrentHashMap을 이용하여 thread-safe하게 구현
-     * 여러 WebSocket 연결을 동시에 처리할 수 있도록 함
-     * ConcurrentHashMap으로 생성된 Map을 이용하여 Set을 생성
-     * Set은 Map의 keySet() 뷰를 반환하며, Map의 키를 Set의 요소로 사용
-     * ConcurrentHashMap을 사용했으므로, Set은 thread-safe 함
+     * WebSocketSession 관리와 브로드캐스트는 WebSocketBroadcaster가 맡는다.
+     * 세션은 연결 시 ConcurrentWebSocketSessionDecorator로 감싸서 등록되고, 응답도 브로드캐스트와 동시에 쓸 수 있도록 감싼 세션으로 보낸다.
      */
-    private final Set<WebSocketSession> sessions = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    private final WebSocketMessageConverter messageConverter;
+    private final WebSocketBroadcaster broadcaster;
+    // 채널별 구독 세션 인덱스, 채널 메시지는 구독한 세션에만 보낸다.
+    private final ChannelSubscriptionIndex subscriptionIndex;
+
+    @Override
+    public List<String> getSubProtocols() {
+        return WebSocketMessageConverter.SUPPORTED_PROTOCOLS;
+    }
 
     // 연결 관리 -------------------------처음 연결 시작 시 -------------------------------
     @Override
@@ -75,9 +96,9 @@ public class CustomWebSocketHandler extends AbstractWebSocketHandler {
             .message("WebSocket 연결이 수립되었습니다.")
             .sessionId(session.getId())
             .build();
-        sessions.add(session);
-        logger.info("WebSocket 연결이 수립되었습니다. Session ID: {}", session.getId());
-        session.sendMessage(messageConverter.convertToTextMessage(message));
+        WebSocketSession concurrentSession = broadcaster.register(session);
+        logger.info("WebSocket 연결이 수립되었습니다. Session ID: {}, 프로토콜: {}", session.getId(), session.getAcceptedProtocol());
+        concurrentSession.sendMessage(messageConverter.convert(session, message));
     }
 
     // 연결 관리 ------------------------- 연결 종료 시 -----------------------------------
@@ -90,9 +111,10 @@ public class CustomWebSocketHandler extends AbstractWebSocketHandler {
             .message("WebSocket 연결이 종료되었습니다.")
             .sessionId(session.getId())
             .build();
-        sessions.remove(session);
+        subscriptionIndex.unsubscribeAll(session);
+        broadcaster.unregister(session);
         logger.info("WebSocket 연결이 종료되었습니다. Session ID: {}, 상태 코드: {}, 이유: {}", session.getId(), status.getCode(), status.getReason());
-        session.sendMessage(messageConverter.convertToTextMessage(message));
+        session.sendMessage(messageConverter.convert(session, message));
     }
 
     /**
@@ -106,8 +128,16 @@ public class CustomWebSocketHandler extends AbstractWebSocketHandler {
             String payload = message.getPayload();
             // 텍스트 메시지 수신 시 로그를 추가하여 어떤 메시지를 받았는지 기록하는 것이 좋음.
             logger.info("텍스트 메시지 수신: {}, Session ID: {}", payload, session.getId());
-            if(payload.startsWith("TEXT|")) {
-                handleTextPayload(session, payload.substring(5));
+            if(payload.startsWith(TEXT_PREFIX)) {
+                handleTextPayload(session, payload.substring(TEXT_PREFIX.length()));
+            } else if (payload.startsWith(SUBSCRIBE_PREFIX)) {
+                handleSubscribe(session, payload.substring(SUBSCRIBE_PREFIX.length()));
+            } else if (payload.startsWith(UNSUBSCRIBE_PREFIX)) {
+                handleUnsubscribe(session, payload.substring(UNSUBSCRIBE_PREFIX.length()));
+            } else if (payload.startsWith(PUBLISH_PREFIX)) {
+                handlePublish(session, payload.substring(PUBLISH_PREFIX.length()));
+            } else if (payload.startsWith(BROADCAST_PREFIX)) {
+                handleBroadcast(session, payload.substring(BROADCAST_PREFIX.length()));
             } else {
                 sendError(session, "UNSUPPORTED_FORMAT", "지원하지 않는 메시지 포맷입니다.");
             }
@@ -119,16 +149,21 @@ public class CustomWebSocketHandler extends AbstractWebSocketHandler {
 
     /**
      * 바이너리 메시지 처리
+     * v1.binary 세션의 BinaryMessageCodec 프레임은 명령으로 처리하고 (code : SUBSCRIBE / UNSUBSCRIBE / PUBLISH / BROADCAST, 그 외 TEXT 타입은 "TEXT|"와 동일)
+     * 그 외 바이너리는 기존처럼 그대로 돌려준다.
      * TODO: 실제 애플리케이션에서는 바이너리 메시지를 처리해야 할 수 있습니다.
      *      예를 들어, 이미지, 파일 전송, 실시간 데이터 스트리밍 등 바이너리 데이터를 처리해야 할 수 있습니다.
      */
     @Override
     protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
         try {
-            ByteBuffer buffer = message.getPayload();
             // 바이너리 메시지 수신 시 로그를 추가하여 어떤 메시지를 받았는지 기록하는 것이 좋음.
             logger.info("바이너리 메시지 수신, Session ID: {}", session.getId());
-            session.sendMessage(new BinaryMessage(buffer));
+            if (WebSocketMessageConverter.isBinaryProtocol(session) && WebSocketMessageConverter.isBinaryFrame(message)) {
+                handleBinaryCommand(session, messageConverter.convertFromBinaryMessage(message));
+            } else {
+                broadcaster.sessionOf(session).sendMessage(new BinaryMessage(message.getPayload()));
+            }
         } catch (Exception e) {
             logger.error("[Binary Error] Session: {}", session.getId(), e);
             sendError(session, "BINARY_PROCESS_ERROR", "바이너리 메시지 처리 중 오류가 발생했습니다.");
@@ -136,6 +171,23 @@ public class CustomWebSocketHandler extends AbstractWebSocketHandler {
     }
 
     // 비즈니스 로직 ----------------------------------------------------------------
+    private void handleBinaryCommand(WebSocketSession session, WebSocketMessages command) {
+        MessageCode code = MessageCode.fromName(command.getCode());
+        if (code == MessageCode.SUBSCRIBE) {
+            handleSubscribe(session, command.getChannel());
+        } else if (code == MessageCode.UNSUBSCRIBE) {
+            handleUnsubscribe(session, command.getChannel());
+        } else if (code == MessageCode.PUBLISH) {
+            publish(session, command.getChannel(), command.getData() == null ? "" : command.getData());
+        } else if (code == MessageCode.BROADCAST) {
+            handleBroadcast(session, command.getData() == null ? "" : command.getData());
+        } else if (command.getType() == WebSocketMessages.MessageType.TEXT) {
+            handleTextPayload(session, command.getData());
+        } else {
+            sendError(session, "UNSUPPORTED_FORMAT", "지원하지 않는 메시지 포맷입니다.");
+        }
+    }
+
     private void handleTextPayload(WebSocketSession session, String payload) {
         WebSocketMessages ackMsg = WebSocketMessages.builder()
             .type(WebSocketMessages.MessageType.ACK)
@@ -147,6 +199,80 @@ public class CustomWebSocketHandler extends AbstractWebSocketHandler {
         sendMessageWithHandling(session, ackMsg);
     }
 
+    private void handleSubscribe(WebSocketSession session, String channel) {
+        ChannelSubscriptionIndex.Result result = subscriptionIndex.subscribe(broadcaster.sessionOf(session), channel);
+        switch (result) {
+            case SUBSCRIBED, ALREADY_SUBSCRIBED -> sendChannelAck(session, "SUBSCRIBED", "채널을 구독했습니다.", channel);
+            case LIMIT_EXCEEDED -> sendError(session, "SUBSCRIPTION_LIMIT_EXCEEDED", "구독할 수 있는 채널 수를 초과했습니다.");
+            default -> sendError(session, "INVALID_CHANNEL", "잘못된 채널 이름입니다.");
+        }
+    }
+
+    private void handleUnsubscribe(WebSocketSession session, String channel) {
+        if (subscriptionIndex.unsubscribe(session, channel) == ChannelSubscriptionIndex.Result.UNSUBSCRIBED) {
+            sendChannelAck(session, "UNSUBSCRIBED", "채널 구독을 해제했습니다.", channel);
+        } else {
+            sendError(session, "NOT_SUBSCRIBED", "구독하지 않은 채널입니다.");
+        }
+    }
+
+    private void handlePublish(WebSocketSession session, String body) {
+        int delimiter = body.indexOf('|');
+        String channel = delimiter < 0 ? body : body.substring(0, delimiter);
+        publish(session, channel, delimiter < 0 ? "" : body.substring(delimiter + 1));
+    }
+
+    // 구독한 채널에만 보낼 수 있다. 메시지는 포맷별로 한 번만 직렬화해서 채널 구독 세션 스냅샷에 브로드캐스트한다.
+    private void publish(WebSocketSession session, String channel, String data) {
+        if (channel == null || !subscriptionIndex.isSubscribed(session, channel)) {
+            sendError(session, "NOT_SUBSCRIBED", "구독한 채널에만 메시지를 보낼 수 있습니다.");
+            return;
+        }
+        publishToChannel(channel, WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.BROADCAST)
+            .code("CHANNEL_MESSAGE")
+            .channel(channel)
+            .data(data)
+            .sessionId(session.getId())
+            .build());
+    }
+
+    private void handleBroadcast(WebSocketSession session, String data) {
+        if (!isAdmin(session)) {
+            sendError(session, "FORBIDDEN", "전체 공지는 관리자만 보낼 수 있습니다.");
+            return;
+        }
+        broadcastMessage(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.BROADCAST)
+            .code("BROADCAST")
+            .data(data)
+            .sessionId(session.getId())
+            .build());
+    }
+
+    private static boolean isAdmin(WebSocketSession session) {
+        Authentication authentication = (Authentication) session.getAttributes().get(AUTHENTICATION_ATTRIBUTE);
+        if (authentication == null) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (RoleType.ROLE_ADMIN.getAuthority().equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sendChannelAck(WebSocketSession session, String code, String message, String channel) {
+        sendMessageWithHandling(session, WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.ACK)
+            .code(code)
+            .message(message)
+            .channel(channel)
+            .sessionId(session.getId())
+            .build());
+    }
+
     // 유틸리티 메서드 ---------------------------------------------------------------
     private void sendMessageWithHandling(WebSocketSession session, WebSocketMessages message) {
         try {
@@ -155,8 +281,8 @@ public class CustomWebSocketHandler extends AbstractWebSocketHandler {
             return;
         }
 
-        TextMessage convertedMessage = messageConverter.convertToTextMessage(message);
-        session.sendMessage(convertedMessage); // Send the message here
+        // 세션이 협상한 포맷(JSON / 바이너리)으로 보낸다.
+        broadcaster.sessionOf(session).sendMessage(messageConverter.convert(session, message)); // Send the message here
 
 
         } catch (Exception e) {
@@ -164,8 +290,13 @@ public class CustomWebSocketHandler extends AbstractWebSocketHandler {
         }
     }
 
+    // 포맷별로 한 번만 직렬화하고 같은 포맷 세션은 같은 메시지를 보낸다. (전송은 WebSocketBroadcaster가 병렬로)
     private void broadcastMessage(WebSocketMessages message) {
-        sessions.forEach(session -> sendMessageWithHandling(session, message));
+        broadcaster.broadcast(message);
+    }
+
+    private void publishToChannel(String channel, WebSocketMessages message) {
+        broadcaster.broadcast(message, subscriptionIndex.members(channel));
     }
 
     private void sendError(WebSocketSession session, String errorCode, String errorMessage) {
@@ -1,48 +1,57 @@
 package com.springboot.websocket.handler;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.web.socket.CloseStatus;
-import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
 import com.springboot.websocket.dto.WebSocketMessages;
+import com.springboot.websocket.service.WebSocketBroadcaster;
+import com.springboot.websocket.utils.WebSocketMessageConverter;
+import com.springboot.websocket.utils.WebSocketRateLimiter;
 
+/**
+ * 수신 메시지 속도 제한 단계
+ *
+ * 예전에는 세션별 AtomicInteger를 스케줄러가 1초마다 전부 0으로 돌렸다. (고정 윈도우라 경계에서 2배까지 몰리고, 매초 O(세션 수) 작업)
+ * 지금은 WebSocketRateLimiter의 token bucket이 호출 시점에 충전량을 계산하므로 스케줄러가 없다.
+ * 에러 응답은 브로드캐스트와 동시에 쓰지 않도록 WebSocketBroadcaster가 감싼 세션으로 보낸다.
+ * 거절마다 응답하지 않고 허용 뒤 첫 거절에만 RATE_LIMITED를 보낸다. 계속 거절만 되는 세션은 POLICY_VIOLATION으로 끊는다.
+ */
 public class RateLimitedWebSocketHandler extends WebSocketHandlerDecorator{
-    private static final Logger logger = LoggerFactory.getLogger(RateLimitedWebSocketHandler.class);
-    private final Map<String, AtomicInteger> sessionMessageCount = new ConcurrentHashMap<>();
-    private final int maxMessagesPerSecond;
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final WebSocketRateLimiter rateLimiter;
+    private final WebSocketMessageConverter messageConverter;
+    private final WebSocketBroadcaster broadcaster;
 
-    public RateLimitedWebSocketHandler(WebSocketHandler delegate, int maxMessagesPerSecond) {
+    public RateLimitedWebSocketHandler(
+        WebSocketHandler delegate,
+        WebSocketRateLimiter rateLimiter,
+        WebSocketMessageConverter messageConverter,
+        WebSocketBroadcaster broadcaster
+    ) {
         super(delegate);
-        this.maxMessagesPerSecond = maxMessagesPerSecond;
-        scheduleResetTask();
+        this.rateLimiter = rateLimiter;
+        this.messageConverter = messageConverter;
+        this.broadcaster = broadcaster;
     }
 
     @Override
-    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
-        if (isRateLimited(session)) {
-            sendError(session, "RATE_LIMITED", "전송 속도 제한을 초과했습니다.");
-            return;
-        }
-        getDelegate().handleMessage(session, message);
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        rateLimiter.register(session);
+        super.afterConnectionEstablished(session);
     }
 
-    private boolean isRateLimited(WebSocketSession session) {
-        String sessionId = session.getId();
-        AtomicInteger count = sessionMessageCount.computeIfAbsent(sessionId, k -> new AtomicInteger(0));
-        return count.incrementAndGet() > maxMessagesPerSecond;
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        switch (rateLimiter.tryAcquire(session, message)) {
+            case ALLOWED -> getDelegate().handleMessage(session, message);
+            case REJECTED_NOTIFY -> sendError(session, "RATE_LIMITED", "전송 속도 제한을 초과했습니다.");
+            case REJECTED -> {
+                // 이미 알렸으므로 응답 없이 버린다.
+            }
+            case VIOLATION -> broadcaster.sessionOf(session).close(CloseStatus.POLICY_VIOLATION.withReason("Rate limit exceeded"));
+        }
     }
 
     private void sendError(WebSocketSession session, String errorCode, String errorMessage) throws Exception {
@@ -53,23 +62,12 @@ public class RateLimitedWebSocketHandler extends WebSocketHandlerDecorator{
                 .sessionId(session.getId())
                 .build();
 
-        session.sendMessage(new TextMessage(convertWebSocketMessageToJson(errorMsg)));
-    }
-
-    private String convertWebSocketMessageToJson(WebSocketMessages message) {
-        
-        return "";
+        broadcaster.sessionOf(session).sendMessage(messageConverter.convert(session, errorMsg));
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        sessionMessageCount.remove(session.getId()); // 세션 종료 시 카운트 제거
+        rateLimiter.unregister(session); // 세션 종료 시 버킷 제거
         super.afterConnectionClosed(session, status);
     }
-    
-    private void scheduleResetTask() {
-        scheduler.scheduleAtFixedRate(() -> {
-            sessionMessageCount.values().forEach(count -> count.set(0));
-        }, 1, 1, TimeUnit.SECONDS);
-    }
 }
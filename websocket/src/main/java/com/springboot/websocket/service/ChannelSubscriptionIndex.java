@@ -0,0 +1,125 @@
+package com.springboot.websocket.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.springboot.websocket.settings.WebSocketProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 채널(토픽 / 방) 구독 인덱스
+ *
+ * 채널 -> 구독 세션 배열, 세션 -> 구독 채널 두 방향으로 들고 있다.
+ * 채널의 세션 배열은 copy-on-write 라서 한번 공개한 배열은 절대 바꾸지 않는다. 전달할 때는 members()로 받은 배열을 락 없이 그대로 돌면 된다.
+ * 배열 교체는 ConcurrentHashMap.compute 안에서 하므로 같은 채널의 구독 / 해제가 겹쳐도 빠지는 세션이 없고,
+ * 마지막 세션이 나가면 채널 엔트리도 같이 지운다.
+ *
+ * 주의 : 구독 / 해제마다 배열을 복사하므로 구독자가 수만 명인 채널에 입퇴장이 잦으면 그만큼 복사 비용이 든다. (전달이 훨씬 잦다는 가정)
+ */
+@Component
+public class ChannelSubscriptionIndex {
+    private static final WebSocketSession[] EMPTY = new WebSocketSession[0];
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    public enum Result { SUBSCRIBED, ALREADY_SUBSCRIBED, NOT_SUBSCRIBED, UNSUBSCRIBED, INVALID_CHANNEL, LIMIT_EXCEEDED }
+
+    private final WebSocketProperties.Subscription settings;
+    private final Map<String, WebSocketSession[]> channels = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> sessionChannels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    public ChannelSubscriptionIndex(WebSocketProperties webSocketProperties, MeterRegistry meterRegistry) {
+        this.settings = webSocketProperties.getSubscription();
+        Gauge.builder("websocket.channels", channels, Map::size).register(meterRegistry);
+        Gauge.builder("websocket.channel.subscriptions", subscriptions, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public static boolean isValidChannel(String channel) {
+        return channel != null && CHANNEL_NAME.matcher(channel).matches();
+    }
+
+    /**
+     * session은 전달에 쓸 세션(WebSocketBroadcaster가 감싼 세션)을 넘긴다.
+     */
+    public Result subscribe(WebSocketSession session, String channel) {
+        if (!isValidChannel(channel)) {
+            return Result.INVALID_CHANNEL;
+        }
+        Set<String> joined = sessionChannels.computeIfAbsent(session.getId(), id -> ConcurrentHashMap.newKeySet());
+        if (joined.contains(channel)) {
+            return Result.ALREADY_SUBSCRIBED;
+        }
+        if (joined.size() >= settings.getMaxChannelsPerSession()) {
+            return Result.LIMIT_EXCEEDED;
+        }
+        if (!joined.add(channel)) {
+            return Result.ALREADY_SUBSCRIBED;
+        }
+
+        channels.compute(channel, (name, members) -> {
+            if (members == null) {
+                return new WebSocketSession[] {session};
+            }
+            WebSocketSession[] next = Arrays.copyOf(members, members.length + 1);
+            next[members.length] = session;
+            return next;
+        });
+        subscriptions.incrementAndGet();
+        return Result.SUBSCRIBED;
+    }
+
+    public Result unsubscribe(WebSocketSession session, String channel) {
+        Set<String> joined = sessionChannels.get(session.getId());
+        if (joined == null || channel == null || !joined.remove(channel)) {
+            return Result.NOT_SUBSCRIBED;
+        }
+        removeMember(channel, session.getId());
+        return Result.UNSUBSCRIBED;
+    }
+
+    // 연결 종료 시 호출, 구독한 모든 채널에서 뺀다.
+    public void unsubscribeAll(WebSocketSession session) {
+        Set<String> joined = sessionChannels.remove(session.getId());
+        if (joined != null) {
+            joined.forEach(channel -> removeMember(channel, session.getId()));
+        }
+    }
+
+    public boolean isSubscribed(WebSocketSession session, String channel) {
+        Set<String> joined = sessionChannels.get(session.getId());
+        return joined != null && joined.contains(channel);
+    }
+
+    // 구독 세션 스냅샷, 돌려받은 배열은 수정하면 안 된다.
+    public WebSocketSession[] members(String channel) {
+        return channels.getOrDefault(channel, EMPTY);
+    }
+
+    // 세션 객체가 아니라 ID로 비교한다. (데코레이터로 감싼 세션과 원래 세션이 섞여 들어와도 빠지도록)
+    private void removeMember(String channel, String sessionId) {
+        channels.computeIfPresent(channel, (name, members) -> {
+            for (int i = 0; i < members.length; i++) {
+                if (members[i].getId().equals(sessionId)) {
+                    subscriptions.decrementAndGet();
+                    if (members.length == 1) {
+                        return null;
+                    }
+                    WebSocketSession[] next = new WebSocketSession[members.length - 1];
+                    System.arraycopy(members, 0, next, 0, i);
+                    System.arraycopy(members, i + 1, next, i, members.length - i - 1);
+                    return next;
+                }
+            }
+            return members;
+        });
+    }
+}
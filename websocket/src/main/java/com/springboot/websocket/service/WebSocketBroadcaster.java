@@ -0,0 +1,332 @@
+package com.springboot.websocket.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import com.springboot.websocket.dto.WebSocketMessages;
+import com.springboot.websocket.settings.WebSocketProperties;
+import com.springboot.websocket.utils.BinaryMessageCodec;
+import com.springboot.websocket.utils.PayloadCompressor;
+import com.springboot.websocket.utils.WebSocketMessageConverter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 브로드캐스트 엔진
+ *
+ * 예전 broadcastMessage는 수신자마다 JSON을 다시 만들고 세션을 하나씩 순서대로 sendMessage 했다.
+ * 그래서 느린 클라이언트 하나가 브로드캐스트 전체를 붙잡았다.
+ * - 메시지는 포맷(JSON / 바이너리 / 압축 JSON)마다 한 번만 만들고 같은 포맷 세션은 같은 결과를 보낸다.
+ *   포맷은 처음 필요한 세션이 나올 때 만든다. 바이너리 / 압축 세션이 없으면 그 포맷으로는 만들지 않는다.
+ *   결과는 브로드캐스트 하나(EncodedMessage)에만 묶여 있어서 동시 브로드캐스트끼리 섞이지 않고, 전송이 끝나면 같이 사라진다.
+ * - 세션은 연결 시 ConcurrentWebSocketSessionDecorator로 감싼다. 다른 스레드가 그 세션에 보내는 중이면 버퍼에 넣고 바로 돌아오므로
+ *   느린 세션 때문에 fan-out 스레드가 기다리지 않는다. 버퍼 / 전송 시간 한도를 넘으면 overflow-strategy에 따라 버리거나 연결을 끊는다.
+ * - 세션은 id 해시로 fan-out 스레드(lane) 하나에 고정된다. 브로드캐스트마다 lane별로 세션을 모아 chunk-size 단위로 그 lane에 넘긴다.
+ *   lane은 스레드 하나가 큐 순서대로 처리하므로 한 세션에는 브로드캐스트가 호출된 순서대로 도착한다.
+ *   (ConcurrentWebSocketSessionDecorator는 한 스레드에서 보낸 순서만 지켜준다. 공유 풀에서 chunk를 나눠 돌리면 뒤 브로드캐스트가 앞지를 수 있다)
+ *   lane 큐가 가득 차면 호출한 스레드가 자리가 날 때까지 기다린다. 직접 보내면 큐에 있는 앞 브로드캐스트를 앞지르기 때문이다.
+ *
+ * 세션에 보내는 모든 메시지(응답 포함)는 여기서 감싼 세션으로 보내야 된다. 원래 세션에 직접 보내면 브로드캐스트와 동시에 쓰게 된다.
+ */
+@Component
+public class WebSocketBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketBroadcaster.class);
+    private static final String METRIC_PREFIX = "websocket.broadcast";
+    // 압축해도 작아지지 않는 메시지 표시 (EncodedMessage.compressed가 null이면 아직 안 만든 상태)
+    private static final byte[] NOT_COMPRESSED = new byte[0];
+    // lane 큐가 가득 차면 자리가 날 때까지 기다린다. (호출한 스레드가 직접 보내면 순서가 깨진다)
+    private static final RejectedExecutionHandler WAIT_FOR_QUEUE = (task, executor) -> {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Broadcast lane is shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for broadcast lane", e);
+        }
+    };
+
+    private final WebSocketProperties.Broadcast settings;
+    private final WebSocketMessageConverter messageConverter;
+    private final PayloadCompressor payloadCompressor;
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor[] lanes;
+
+    private final Timer fanOutTimer;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter limitExceeded;
+
+    public WebSocketBroadcaster(
+        WebSocketProperties webSocketProperties,
+        WebSocketMessageConverter messageConverter,
+        PayloadCompressor payloadCompressor,
+        MeterRegistry meterRegistry
+    ) {
+        this.settings = webSocketProperties.getBroadcast();
+        this.messageConverter = messageConverter;
+        this.payloadCompressor = payloadCompressor;
+
+        int laneCount = Math.max(1, settings.getThreads());
+        int laneQueueCapacity = Math.max(1, settings.getQueueCapacity() / laneCount);
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int lane = 0; lane < laneCount; lane++) {
+            String threadName = "websocket-broadcast-" + (lane + 1);
+            lanes[lane] = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(laneQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                WAIT_FOR_QUEUE
+            );
+        }
+
+        this.fanOutTimer = Timer.builder(METRIC_PREFIX + ".duration")
+            .description("브로드캐스트 하나가 모든 세션에 전달(또는 버퍼링)될 때까지 걸린 시간")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.sent = Counter.builder(METRIC_PREFIX + ".messages").tag("result", "sent").register(meterRegistry);
+        this.failed = Counter.builder(METRIC_PREFIX + ".messages").tag("result", "failed").register(meterRegistry);
+        this.limitExceeded = Counter.builder(METRIC_PREFIX + ".messages").tag("result", "limit-exceeded").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".sessions", sessions, Map::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue", lanes, WebSocketBroadcaster::queuedTasks).register(meterRegistry);
+    }
+
+    // 세션을 동시 송신 가능한 데코레이터로 감싸서 등록하고 감싼 세션을 반환한다.
+    public WebSocketSession register(WebSocketSession session) {
+        WebSocketSession concurrent = new ConcurrentWebSocketSessionDecorator(
+            session, (int) settings.getSendTimeLimit().toMillis(), settings.getBufferSizeLimit(), settings.getOverflowStrategy());
+        sessions.put(session.getId(), concurrent);
+        return concurrent;
+    }
+
+    public void unregister(WebSocketSession session) {
+        sessions.remove(session.getId());
+    }
+
+    // 등록된 감싼 세션, 없으면(이미 종료) 받은 세션 그대로
+    public WebSocketSession sessionOf(WebSocketSession session) {
+        return sessions.getOrDefault(session.getId(), session);
+    }
+
+    public WebSocketSession sessionOf(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    public void broadcast(WebSocketMessages message) {
+        broadcast(message, sessions.values());
+    }
+
+    /**
+     * targets에 병렬로 보낸다. 호출한 스레드는 작업을 넘기고 바로 돌아온다. (lane 큐가 가득 찬 경우만 자리가 날 때까지 기다림)
+     * 같은 세션에는 호출 순서대로 도착한다.
+     */
+    public void broadcast(WebSocketMessages message, Collection<WebSocketSession> targets) {
+        broadcast(message, targets.toArray(new WebSocketSession[0]));
+    }
+
+    // 이미 스냅샷(배열)으로 들고 있는 대상용, 배열은 수정하지 않는다.
+    public void broadcast(WebSocketMessages message, WebSocketSession[] snapshot) {
+        if (snapshot.length == 0) {
+            return;
+        }
+
+        EncodedMessage encoded = new EncodedMessage(message);
+        int chunkSize = Math.min(settings.getChunkSize(), snapshot.length);
+        WebSocketSession[][] chunks = new WebSocketSession[lanes.length][];
+        int[] counts = new int[lanes.length];
+        FanOut fanOut = new FanOut(encoded, System.nanoTime());
+        for (WebSocketSession session : snapshot) {
+            int lane = laneOf(session);
+            if (chunks[lane] == null) {
+                chunks[lane] = new WebSocketSession[chunkSize];
+            }
+            chunks[lane][counts[lane]++] = session;
+            if (counts[lane] == chunkSize) {
+                submit(lane, fanOut, chunks[lane], chunkSize);
+                chunks[lane] = null;
+                counts[lane] = 0;
+            }
+        }
+        for (int lane = 0; lane < lanes.length; lane++) {
+            if (counts[lane] > 0) {
+                submit(lane, fanOut, chunks[lane], counts[lane]);
+            }
+        }
+        fanOut.done();
+    }
+
+    private void submit(int lane, FanOut fanOut, WebSocketSession[] chunk, int count) {
+        fanOut.remaining.incrementAndGet();
+        try {
+            lanes[lane].execute(() -> {
+                for (int i = 0; i < count; i++) {
+                    send(chunk[i], fanOut.encoded.forSession(chunk[i]));
+                }
+                fanOut.done();
+            });
+        } catch (RejectedExecutionException e) {
+            // 종료 중
+            fanOut.remaining.decrementAndGet();
+            logger.debug("브로드캐스트 lane이 종료되어 전송하지 않습니다.");
+        }
+    }
+
+    private int laneOf(WebSocketSession session) {
+        return Math.floorMod(session.getId().hashCode(), lanes.length);
+    }
+
+    /**
+     * 감싼 세션으로 보낸다. 한도를 넘은 세션은 TERMINATE면 닫는다. 예외는 밖으로 던지지 않는다.
+     * @return 보냈거나 버퍼에 넣었으면 true
+     */
+    public boolean send(WebSocketSession session, WebSocketMessage<?> message) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        try {
+            session.sendMessage(message);
+            sent.increment();
+            return true;
+        } catch (SessionLimitExceededException e) {
+            limitExceeded.increment();
+            logger.warn("느린 세션 종료 - Session ID: {}, 이유: {}", session.getId(), e.getMessage());
+            closeQuietly(session, e);
+        } catch (Exception e) {
+            failed.increment();
+            logger.warn("브로드캐스트 전송 실패 - Session ID: {}", session.getId(), e);
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.warn("브로드캐스트 스레드가 제 시간에 종료되지 않았습니다.");
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    private static double queuedTasks(ThreadPoolExecutor[] lanes) {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    private static void closeQuietly(WebSocketSession session, SessionLimitExceededException e) {
+        try {
+            session.close(e.getStatus());
+        } catch (Exception closeException) {
+            logger.debug("세션 종료 실패 - Session ID: {}", session.getId(), closeException);
+        }
+    }
+
+    // 브로드캐스트 하나의 진행 상태, 마지막 chunk가 끝나면 fan-out 시간을 기록한다.
+    private final class FanOut {
+        private final EncodedMessage encoded;
+        private final long start;
+        // 넘긴 chunk 수 + 1, 마지막 chunk까지 넘긴 뒤에 1을 빼므로 넘기는 도중에 0이 되지 않는다.
+        private final AtomicInteger remaining = new AtomicInteger(1);
+
+        private FanOut(EncodedMessage encoded, long start) {
+            this.encoded = encoded;
+            this.start = start;
+        }
+
+        private void done() {
+            if (remaining.decrementAndGet() == 0) {
+                fanOutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 브로드캐스트 하나의 포맷별 직렬화 결과
+     * 여러 fan-out 스레드가 동시에 처음 요청하면 두 번 만들 수 있지만 결과는 같으므로 락을 걸지 않는다.
+     * 바이너리 / 압축 결과는 byte[]만 공유하고 세션마다 BinaryMessage로 감싼다. (전송하면서 ByteBuffer position이 움직이므로)
+     */
+    private final class EncodedMessage {
+        private final WebSocketMessages source;
+        private volatile TextMessage text;
+        private volatile WebSocketMessage<?> uncompressed;
+        private volatile byte[] binary;
+        private volatile byte[] compressed;
+
+        private EncodedMessage(WebSocketMessages source) {
+            this.source = source;
+        }
+
+        private WebSocketMessage<?> forSession(WebSocketSession session) {
+            if (WebSocketMessageConverter.isBinaryProtocol(session)) {
+                byte[] frame = binary;
+                if (frame == null) {
+                    frame = BinaryMessageCodec.encode(source);
+                    binary = frame;
+                }
+                return new BinaryMessage(frame);
+            }
+            TextMessage message = text();
+            if (PayloadCompressor.isNegotiated(session)) {
+                byte[] frame = compressed;
+                if (frame == null) {
+                    byte[] result = payloadCompressor.compress(message);
+                    frame = result == null ? NOT_COMPRESSED : result;
+                    compressed = frame;
+                }
+                if (frame != NOT_COMPRESSED) {
+                    return new BinaryMessage(frame);
+                }
+                // 압축 세션 데코레이터가 세션마다 다시 압축해보지 않도록 이미 시도했다는 표시로 감싼다.
+                WebSocketMessage<?> result = uncompressed;
+                if (result == null) {
+                    result = new PayloadCompressor.UncompressedText(message);
+                    uncompressed = result;
+                }
+                return result;
+            }
+            return message;
+        }
+
+        private TextMessage text() {
+            TextMessage message = text;
+            if (message == null) {
+                message = messageConverter.convertToTextMessage(source);
+                text = message;
+            }
+            return message;
+        }
+    }
+}
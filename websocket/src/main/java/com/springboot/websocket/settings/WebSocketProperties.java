@@ -0,0 +1,75 @@
+package com.springboot.websocket.settings;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "websocket")
+@Configuration
+public class WebSocketProperties {
+    // 메시지 압축 설정
+    private final Compression compression = new Compression();
+
+    // 수신 메시지 속도 제한 설정
+    private final RateLimit rateLimit = new RateLimit();
+
+    // 브로드캐스트 / 세션별 송신 버퍼 설정
+    private final Broadcast broadcast = new Broadcast();
+
+    // 채널(토픽 / 방) 구독 설정
+    private final Subscription subscription = new Subscription();
+
+    @Getter
+    @Setter
+    public static class Compression {
+        private boolean enabled = true;
+        private int minSize = 1024;                             // 이 크기(UTF-8 바이트) 미만은 압축하지 않는다. (헤더 / CPU 대비 이득이 없음)
+        private int level = 6;                                  // Deflater 압축 레벨 (1 빠름 ~ 9 작음)
+        private int poolSize = 32;                              // Deflater / Inflater 풀 크기 (각각)
+        private int maxInflatedSize = 1024 * 1024;              // 수신 메시지 압축 해제 최대 크기 (zip bomb 방지)
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private boolean enabled = true;
+        private Limit defaultLimit = new Limit();               // authorities에 설정이 없는 권한 / 메시지 타입에 쓰는 세션 한도
+        private Map<String, Map<String, Limit>> authorities = new HashMap<>(); // authority -> 메시지 타입(text / binary) -> 세션 한도
+        private Limit user = new Limit();                       // 사용자 한 명의 모든 세션 합산 한도
+        private int closeAfterRejections = 100;                 // 허용 없이 연속으로 이만큼 거절되면 POLICY_VIOLATION으로 끊는다 (0이면 끊지 않음)
+
+        @Getter
+        @Setter
+        public static class Limit {
+            private int burst = 10;                             // 한번에 몰아서 보낼 수 있는 메시지 수
+            private double perSecond = 10;                      // 지속 허용 속도 (초당 메시지 수)
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Broadcast {
+        private Duration sendTimeLimit = Duration.ofSeconds(5);  // 한 세션에 보내는 중인 상태가 이 시간을 넘으면 느린 클라이언트로 본다
+        private int bufferSizeLimit = 512 * 1024;                // 세션별 미전송 버퍼 한도 (바이트)
+        private ConcurrentWebSocketSessionDecorator.OverflowStrategy overflowStrategy =
+            ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE; // 버퍼 초과 시 TERMINATE(연결 종료) / DROP(오래된 메시지 버림)
+        private int threads = Runtime.getRuntime().availableProcessors() * 2; // fan-out 스레드(lane) 수, 세션은 lane 하나에 고정된다
+        private int queueCapacity = 10_000;                      // fan-out 작업 큐 (lane 수로 나눠 씀), 가득 차면 호출한 스레드가 기다린다 (backpressure)
+        private int chunkSize = 512;                             // fan-out 작업 하나가 맡는 세션 수
+    }
+
+    @Getter
+    @Setter
+    public static class Subscription {
+        private int maxChannelsPerSession = 100;                // 세션 하나가 구독할 수 있는 채널 수
+    }
+}
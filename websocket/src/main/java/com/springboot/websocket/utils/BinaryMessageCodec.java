@@ -0,0 +1,231 @@
+package com.springboot.websocket.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.springboot.websocket.dto.MessageCode;
+import com.springboot.websocket.dto.WebSocketMessages;
+import com.springboot.websocket.exception.MessageConversionException;
+
+/**
+ * WebSocketMessages 바이너리 프레임 포맷
+ *
+ * [MAGIC 1B][type 1B][code id 1B][code?][message?][data][channel][sessionId]
+ * - type : MessageType ordinal
+ * - code id : MessageCode id, 목록에 없는 코드면 0 이고 바로 뒤에 code 문자열이 온다.
+ * - 문자열 필드는 길이(varint, 실제 길이 + 1) + UTF-8 바이트, 길이 0은 null
+ * - message는 code id가 0일 때만 보낸다. 알려진 코드의 안내 문구는 클라이언트가 id로 들고 있다.
+ *
+ * MAGIC(0xB1)은 압축 프레임 표시(PayloadCompressor.DEFLATE_FRAME = 0xDF)와 겹치지 않게 골랐다.
+ * 인코딩은 필드 길이를 먼저 계산해서 byte[] 하나에 바로 쓰고, 디코딩은 받은 ByteBuffer를 복사하지 않고 그 자리에서 읽는다.
+ */
+public final class BinaryMessageCodec {
+    public static final byte MAGIC = (byte) 0xB1;
+    private static final int HEADER_SIZE = 3;
+    private static final WebSocketMessages.MessageType[] TYPES = WebSocketMessages.MessageType.values();
+
+    private BinaryMessageCodec() {
+    }
+
+    public static boolean isBinaryFrame(ByteBuffer payload) {
+        return payload.remaining() >= HEADER_SIZE && payload.get(payload.position()) == MAGIC;
+    }
+
+    public static byte[] encode(WebSocketMessages message) {
+        MessageCode code = MessageCode.fromName(message.getCode());
+        String codeText = code == null ? message.getCode() : null;
+        String messageText = code == null ? message.getMessage() : null;
+
+        int size = HEADER_SIZE
+            + (code == null ? fieldSize(codeText) + fieldSize(messageText) : 0)
+            + fieldSize(message.getData())
+            + fieldSize(message.getChannel())
+            + fieldSize(message.getSessionId());
+
+        byte[] frame = new byte[size];
+        frame[0] = MAGIC;
+        frame[1] = (byte) (message.getType() == null ? 0 : message.getType().ordinal());
+        frame[2] = (byte) (code == null ? MessageCode.UNKNOWN_ID : code.getId());
+        int offset = HEADER_SIZE;
+        if (code == null) {
+            offset = writeField(frame, offset, codeText);
+            offset = writeField(frame, offset, messageText);
+        }
+        offset = writeField(frame, offset, message.getData());
+        offset = writeField(frame, offset, message.getChannel());
+        writeField(frame, offset, message.getSessionId());
+        return frame;
+    }
+
+    /**
+     * payload의 position부터 읽는다. payload의 position / limit은 바꾸지 않는다.
+     * 알려진 코드면 message는 null로 남는다.
+     */
+    public static WebSocketMessages decode(ByteBuffer payload) {
+        if (!isBinaryFrame(payload)) {
+            throw new MessageConversionException("Not a binary WebSocketMessages frame");
+        }
+        Reader reader = new Reader(payload);
+        reader.position += 1;
+        int typeIndex = reader.readByte();
+        if (typeIndex >= TYPES.length) {
+            throw new MessageConversionException("Unknown message type: " + typeIndex);
+        }
+        int codeId = reader.readByte();
+        MessageCode code = MessageCode.fromId(codeId);
+        if (code == null && codeId != MessageCode.UNKNOWN_ID) {
+            throw new MessageConversionException("Unknown message code: " + codeId);
+        }
+        String codeText = code == null ? reader.readField() : code.name();
+        String messageText = code == null ? reader.readField() : null;
+
+        return WebSocketMessages.builder()
+            .type(TYPES[typeIndex])
+            .code(codeText)
+            .message(messageText)
+            .data(reader.readField())
+            .channel(reader.readField())
+            .sessionId(reader.readField())
+            .build();
+    }
+
+    // 인코딩 -----------------------------------------------------------------
+
+    private static int fieldSize(String value) {
+        if (value == null) {
+            return 1;
+        }
+        int length = utf8Length(value);
+        return varIntSize(length + 1) + length;
+    }
+
+    private static int writeField(byte[] frame, int offset, String value) {
+        if (value == null) {
+            frame[offset] = 0;
+            return offset + 1;
+        }
+        offset = writeVarInt(frame, offset, utf8Length(value) + 1);
+        return writeUtf8(frame, offset, value);
+    }
+
+    // String.getBytes로 중간 배열을 만들지 않고 frame에 바로 쓴다. (짝이 안 맞는 surrogate는 getBytes와 같이 '?')
+    private static int writeUtf8(byte[] frame, int offset, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                frame[offset++] = (byte) c;
+            } else if (c < 0x800) {
+                frame[offset++] = (byte) (0xC0 | (c >> 6));
+                frame[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    frame[offset++] = (byte) (0xF0 | (codePoint >> 18));
+                    frame[offset++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    frame[offset++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    frame[offset++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    frame[offset++] = '?';
+                }
+            } else {
+                frame[offset++] = (byte) (0xE0 | (c >> 12));
+                frame[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                frame[offset++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return offset;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length += 1;
+                }
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarInt(byte[] frame, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            frame[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        frame[offset++] = (byte) value;
+        return offset;
+    }
+
+    // 디코딩 -----------------------------------------------------------------
+
+    // 절대 위치 get만 쓰므로 원래 버퍼의 position은 그대로 둔다.
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private int position;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.position = buffer.position();
+        }
+
+        private int readByte() {
+            if (position >= buffer.limit()) {
+                throw new MessageConversionException("Truncated binary frame");
+            }
+            return buffer.get(position++) & 0xFF;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new MessageConversionException("Malformed length in binary frame");
+        }
+
+        private String readField() {
+            int encoded = readVarInt();
+            if (encoded < 0) {
+                throw new MessageConversionException("Malformed length in binary frame");
+            }
+            int length = encoded - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.limit() - position) {
+                throw new MessageConversionException("Field length exceeds binary frame");
+            }
+            String value;
+            if (buffer.hasArray()) {
+                value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+            } else {
+                value = StandardCharsets.UTF_8.decode(buffer.slice(position, length)).toString();
+            }
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.springboot.websocket.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.AbstractWebSocketMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.springboot.websocket.settings.WebSocketProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * WebSocket 메시지 압축기
+ *
+ * 압축된 메시지는 BinaryMessage로 보내고 첫 바이트를 DEFLATE_FRAME 마커로 둔 뒤 raw deflate(nowrap) 데이터를 붙인다.
+ * Base64 문자열로 TextMessage에 싣는 방식은 33%가 다시 늘어나서 압축 이득을 많이 까먹는다.
+ *
+ * Deflater / Inflater는 생성할 때 네이티브 zlib 메모리를 잡고 end()를 불러야 해제되므로 매번 만들지 않고 풀에서 빌려 쓴다.
+ * 풀이 비어있으면 새로 만들고, 반납할 때 풀이 가득 차 있으면 end()로 정리한다.
+ * 브로드캐스트는 WebSocketBroadcaster가 브로드캐스트 하나당 한 번만 압축해서 압축 세션(COMPRESSION_ATTRIBUTE)에 같은 결과를 보낸다.
+ * 여기에는 메시지 간 캐시를 두지 않는다. (전역 슬롯 하나면 동시 브로드캐스트끼리 서로 밀어내고 마지막 큰 메시지를 계속 잡고 있게 된다)
+ * 압축해봤는데 작아지지 않은 브로드캐스트는 UncompressedText로 감싸서 보내고, CompressingWebSocketSession은 그걸 다시 압축하지 않고 풀어서 보낸다.
+ *
+ * 지표
+ * - websocket.compression.ratio{direction} : 압축 후 / 압축 전 크기
+ * - websocket.compression.cpu{direction}   : 압축 / 해제에 쓴 스레드 CPU 시간 (지원하지 않는 JVM이면 경과 시간)
+ * - websocket.compression.frames{direction, result} : 압축 / 건너뜀(작아지지 않음) 수
+ */
+@Component
+public class PayloadCompressor {
+    public static final byte DEFLATE_FRAME = (byte) 0xDF;
+    // 앱 레벨 압축을 협상한 세션 표시 (CompressionMessageWebSocketHandler가 넣는다)
+    public static final String COMPRESSION_ATTRIBUTE = "websocket.compression";
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean THREAD_CPU_TIME =
+        THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+
+    private final WebSocketProperties.Compression settings;
+    private final BlockingQueue<Deflater> deflaters;
+    private final BlockingQueue<Inflater> inflaters;
+
+    private final DistributionSummary outboundRatio;
+    private final DistributionSummary inboundRatio;
+    private final Timer outboundCpu;
+    private final Timer inboundCpu;
+    private final Counter compressed;
+    private final Counter notSmaller;
+    private final Counter inflated;
+
+    public PayloadCompressor(WebSocketProperties webSocketProperties, MeterRegistry meterRegistry) {
+        this.settings = webSocketProperties.getCompression();
+        this.deflaters = new ArrayBlockingQueue<>(settings.getPoolSize());
+        this.inflaters = new ArrayBlockingQueue<>(settings.getPoolSize());
+
+        this.outboundRatio = ratio("outbound", meterRegistry);
+        this.inboundRatio = ratio("inbound", meterRegistry);
+        this.outboundCpu = Timer.builder("websocket.compression.cpu").tag("direction", "outbound").register(meterRegistry);
+        this.inboundCpu = Timer.builder("websocket.compression.cpu").tag("direction", "inbound").register(meterRegistry);
+        this.compressed = Counter.builder("websocket.compression.frames").tag("direction", "outbound").tag("result", "compressed").register(meterRegistry);
+        this.notSmaller = Counter.builder("websocket.compression.frames").tag("direction", "outbound").tag("result", "not-smaller").register(meterRegistry);
+        this.inflated = Counter.builder("websocket.compression.frames").tag("direction", "inbound").tag("result", "inflated").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    // 문자 수로 먼저 거른다. UTF-8은 문자당 최대 3바이트(BMP)라 chars * 3 이 기준 미만이면 인코딩할 필요도 없다.
+    public boolean mightCompress(int chars) {
+        return settings.isEnabled() && (long) chars * 3 >= settings.getMinSize();
+    }
+
+    public boolean shouldCompress(int bytes) {
+        return settings.isEnabled() && bytes >= settings.getMinSize();
+    }
+
+    public static boolean isNegotiated(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get(COMPRESSION_ATTRIBUTE));
+    }
+
+    /**
+     * 이미 압축을 시도했지만 작아지지 않아서 원본 그대로 보낼 TextMessage
+     * 압축 세션(CompressingWebSocketSession)에만 보내야 된다. 데코레이터가 벗겨서 TextMessage로 보낸다.
+     */
+    public static final class UncompressedText extends AbstractWebSocketMessage<TextMessage> {
+        public UncompressedText(TextMessage message) {
+            super(message);
+        }
+
+        @Override
+        public int getPayloadLength() {
+            return getPayload().getPayloadLength();
+        }
+
+        @Override
+        protected String toStringPayload() {
+            return getPayload().toString();
+        }
+    }
+
+    public static boolean isCompressedFrame(ByteBuffer payload) {
+        return payload.remaining() > 0 && payload.get(payload.position()) == DEFLATE_FRAME;
+    }
+
+    /**
+     * TextMessage 압축, min-size 미만이거나 작아지지 않으면 null
+     */
+    public byte[] compress(TextMessage message) {
+        if (!mightCompress(message.getPayload().length())) {
+            return null;
+        }
+        byte[] bytes = message.asBytes();
+        return shouldCompress(bytes.length) ? compress(bytes) : null;
+    }
+
+    /**
+     * 마커 + deflate 데이터를 반환한다. 압축해도 원본보다 작아지지 않으면 null (원본을 그대로 보내면 된다)
+     * 출력 버퍼를 원본 크기로 잡고 그 안에 다 안 들어가면 바로 포기하므로 큰 버퍼를 따로 만들지 않는다.
+     */
+    public byte[] compress(byte[] input) {
+        if (input.length < 2) {
+            return null;
+        }
+        Deflater deflater = borrowDeflater();
+        long start = cpuTime();
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] output = new byte[input.length];
+            output[0] = DEFLATE_FRAME;
+            int length = 1;
+            while (!deflater.finished() && length < output.length) {
+                int written = deflater.deflate(output, length, output.length - length);
+                if (written == 0) {
+                    break;
+                }
+                length += written;
+            }
+
+            if (!deflater.finished()) {
+                notSmaller.increment();
+                return null;
+            }
+            compressed.increment();
+            outboundRatio.record((double) length / input.length);
+            return Arrays.copyOf(output, length);
+        } finally {
+            outboundCpu.record(cpuTime() - start, TimeUnit.NANOSECONDS);
+            releaseDeflater(deflater);
+        }
+    }
+
+    /**
+     * DEFLATE_FRAME 마커로 시작하는 payload를 풀어서 원본 바이트(UTF-8)를 반환한다.
+     * payload의 position은 건드리지 않는다.
+     */
+    public byte[] decompress(ByteBuffer payload) throws DataFormatException {
+        ByteBuffer input = payload.duplicate();
+        input.get();
+        int compressedLength = input.remaining();
+        int maxSize = settings.getMaxInflatedSize();
+
+        Inflater inflater = borrowInflater();
+        long start = cpuTime();
+        try {
+            inflater.setInput(input);
+            byte[] output = new byte[Math.min(maxSize, Math.max(256, compressedLength * 4))];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == output.length) {
+                    if (output.length >= maxSize) {
+                        throw new DataFormatException("Inflated payload exceeds " + maxSize + " bytes");
+                    }
+                    output = Arrays.copyOf(output, Math.min(maxSize, output.length * 2));
+                }
+                int read = inflater.inflate(output, length, output.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflate payload");
+                }
+                length += read;
+            }
+
+            inflated.increment();
+            if (length > 0) {
+                inboundRatio.record((double) (compressedLength + 1) / length);
+            }
+            return length == output.length ? output : Arrays.copyOf(output, length);
+        } finally {
+            inboundCpu.record(cpuTime() - start, TimeUnit.NANOSECONDS);
+            releaseInflater(inflater);
+        }
+    }
+
+    private Deflater borrowDeflater() {
+        Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(settings.getLevel(), true);
+    }
+
+    private void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private Inflater borrowInflater() {
+        Inflater inflater = inflaters.poll();
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    private void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    private static long cpuTime() {
+        return THREAD_CPU_TIME ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static DistributionSummary ratio(String direction, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("websocket.compression.ratio")
+            .description("압축 후 크기 / 압축 전 크기")
+            .tag("direction", direction)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.springboot.websocket.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * lock-free token bucket
+ *
+ * 남은 토큰 수와 마지막 충전 시각을 따로 들고 있으면 둘을 같이 바꿔야 해서 락이 필요하다.
+ * 대신 "다음 토큰이 생기는 이론상 시각" 하나만 AtomicLong으로 들고 있는다. (GCRA, token bucket과 동작이 같다)
+ * - 메시지 하나를 허용할 때마다 그 시각을 interval(1초 / per-second) 만큼 민다.
+ * - 그 시각이 지금보다 burst * interval 이상 앞서 있으면 토큰이 다 떨어진 것이므로 거절한다.
+ * 충전은 따로 돌지 않고 호출 시점의 시각과 비교해서 계산(lazy refill)되므로 스케줄러가 필요 없고, 호출마다 할당도 없다.
+ */
+public final class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(int burst, double perSecond) {
+        if (burst < 1 || perSecond <= 0) {
+            throw new IllegalArgumentException("burst must be >= 1 and perSecond > 0: " + burst + ", " + perSecond);
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+        this.toleranceNanos = intervalNanos * burst;
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            if (next - nowNanos > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.springboot.websocket.utils;
 
+import java.util.List;
+
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -10,11 +15,31 @@ import com.springboot.websocket.exception.MessageConversionException;
 
 import lombok.RequiredArgsConstructor;
 
+/**
+ * WebSocketMessages <-> 프레임 변환
+ *
+ * 포맷은 연결마다 핸드셰이크의 Sec-WebSocket-Protocol로 정한다.
+ * 클라이언트가 BINARY_PROTOCOL을 요청하면 BinaryMessageCodec 바이너리 프레임, 아니면(요청 없음 포함) 기존 JSON 텍스트 프레임이다.
+ */
 @Component
 @RequiredArgsConstructor
 public class WebSocketMessageConverter {
+    public static final String JSON_PROTOCOL = "v1.json";
+    public static final String BINARY_PROTOCOL = "v1.binary";
+    // 클라이언트가 둘 다 보내면 이 순서대로 고른다.
+    public static final List<String> SUPPORTED_PROTOCOLS = List.of(BINARY_PROTOCOL, JSON_PROTOCOL);
+
     private final ObjectMapper objectMapper;
 
+    public static boolean isBinaryProtocol(WebSocketSession session) {
+        return BINARY_PROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    // 세션이 협상한 포맷으로 변환
+    public WebSocketMessage<?> convert(WebSocketSession session, WebSocketMessages message) {
+        return isBinaryProtocol(session) ? convertToBinaryMessage(message) : convertToTextMessage(message);
+    }
+
     public TextMessage convertToTextMessage(WebSocketMessages message) {
         try {
             return new TextMessage(objectMapper.writeValueAsString(message));
@@ -22,4 +47,16 @@ public class WebSocketMessageConverter {
             throw new MessageConversionException("Failed to convert WebSocketMessage to TextMessage");
         }
     }
+
+    public BinaryMessage convertToBinaryMessage(WebSocketMessages message) {
+        return new BinaryMessage(BinaryMessageCodec.encode(message));
+    }
+
+    public WebSocketMessages convertFromBinaryMessage(BinaryMessage message) {
+        return BinaryMessageCodec.decode(message.getPayload());
+    }
+
+    public static boolean isBinaryFrame(BinaryMessage message) {
+        return BinaryMessageCodec.isBinaryFrame(message.getPayload());
+    }
 }
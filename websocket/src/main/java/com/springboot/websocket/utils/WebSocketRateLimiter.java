@@ -0,0 +1,173 @@
+package com.springboot.websocket.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.springboot.websocket.settings.WebSocketProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * WebSocket 수신 메시지 속도 제한기
+ *
+ * 세션마다 메시지 타입(text / binary)별 TokenBucket을, 사용자마다 모든 세션을 합친 TokenBucket을 하나씩 둔다.
+ * 한도는 연결 시점의 권한(authority)으로 정해지고 버킷도 그때 만들어 두므로, 메시지마다는 Map 조회와 CAS만 한다. (할당 없음)
+ * 사용자 버킷은 그 사용자의 세션 수를 세다가 마지막 세션이 닫힐 때 제거한다.
+ *
+ * 세션 버킷을 통과한 뒤 사용자 버킷에서 거절되면 세션 버킷 토큰은 돌려주지 않는다. (그만큼 더 보수적으로 동작)
+ *
+ * 거절마다 에러 응답을 보내면 폭주하는 클라이언트가 보낸 만큼 서버가 송신 대역폭 / 전송 버퍼를 쓰게 된다.
+ * 그래서 세션별로 연속 거절 수를 세서 허용 뒤 첫 거절만 알리고(REJECTED_NOTIFY), close-after-rejections 만큼 연속으로 거절되면 VIOLATION을 돌려준다.
+ */
+@Component
+public class WebSocketRateLimiter {
+    private static final String AUTHENTICATION_ATTRIBUTE = "authentication";
+    private static final String METRIC_NAME = "websocket.rate-limit.messages";
+    private static final String[] MESSAGE_TYPES = {"text", "binary"};
+    private static final int NOT_LIMITED = -1;
+
+    private final WebSocketProperties.RateLimit settings;
+    private final Map<String, SessionLimits> sessions = new ConcurrentHashMap<>();
+    private final Map<String, UserLimit> users = new ConcurrentHashMap<>();
+
+    private final Counter[] allowed = new Counter[MESSAGE_TYPES.length];
+    private final Counter[] sessionRejected = new Counter[MESSAGE_TYPES.length];
+    private final Counter[] userRejected = new Counter[MESSAGE_TYPES.length];
+
+    public enum Decision {
+        ALLOWED,
+        REJECTED_NOTIFY,    // 허용 뒤 첫 거절, 에러 응답을 한 번 보낸다
+        REJECTED,           // 이어지는 거절, 응답 없이 버린다
+        VIOLATION           // 연속 거절이 한도를 넘음, 연결을 끊는다
+    }
+
+    public WebSocketRateLimiter(WebSocketProperties webSocketProperties, MeterRegistry meterRegistry) {
+        this.settings = webSocketProperties.getRateLimit();
+        for (int i = 0; i < MESSAGE_TYPES.length; i++) {
+            String type = MESSAGE_TYPES[i];
+            allowed[i] = Counter.builder(METRIC_NAME).tag("type", type).tag("result", "allowed").register(meterRegistry);
+            sessionRejected[i] = Counter.builder(METRIC_NAME).tag("type", type).tag("result", "rejected").tag("scope", "session").register(meterRegistry);
+            userRejected[i] = Counter.builder(METRIC_NAME).tag("type", type).tag("result", "rejected").tag("scope", "user").register(meterRegistry);
+        }
+        Gauge.builder("websocket.rate-limit.users", users, Map::size).register(meterRegistry);
+    }
+
+    public void register(WebSocketSession session) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Authentication authentication = (Authentication) session.getAttributes().get(AUTHENTICATION_ATTRIBUTE);
+        Map<String, WebSocketProperties.RateLimit.Limit> limits = limitsFor(authentication);
+        TokenBucket[] buckets = new TokenBucket[MESSAGE_TYPES.length];
+        for (int i = 0; i < MESSAGE_TYPES.length; i++) {
+            buckets[i] = bucket(limits.getOrDefault(MESSAGE_TYPES[i], settings.getDefaultLimit()));
+        }
+
+        String userName = authentication != null ? authentication.getName() : null;
+        UserLimit user = userName == null ? null : users.compute(userName, (name, existing) -> {
+            UserLimit limit = existing != null ? existing : new UserLimit(bucket(settings.getUser()));
+            limit.sessions++;
+            return limit;
+        });
+        sessions.put(session.getId(), new SessionLimits(buckets, userName, user, new AtomicInteger()));
+    }
+
+    /**
+     * @return 처리해도 되면 ALLOWED, 한도를 넘었으면 연속 거절 수에 따라 REJECTED_NOTIFY / REJECTED / VIOLATION (지표는 여기서 올린다)
+     */
+    public Decision tryAcquire(WebSocketSession session, WebSocketMessage<?> message) {
+        int type = typeOf(message);
+        if (!settings.isEnabled() || type == NOT_LIMITED) {
+            return Decision.ALLOWED;
+        }
+        SessionLimits limits = sessions.get(session.getId());
+        if (limits == null) {
+            return Decision.ALLOWED;
+        }
+
+        long now = System.nanoTime();
+        if (!limits.buckets[type].tryAcquire(now)) {
+            sessionRejected[type].increment();
+            return rejected(limits);
+        }
+        if (limits.user != null && !limits.user.bucket.tryAcquire(now)) {
+            userRejected[type].increment();
+            return rejected(limits);
+        }
+        allowed[type].increment();
+        // 평소에는 0이므로 읽기만 하고 쓰지 않는다.
+        if (limits.rejections.get() != 0) {
+            limits.rejections.set(0);
+        }
+        return Decision.ALLOWED;
+    }
+
+    private Decision rejected(SessionLimits limits) {
+        int streak = limits.rejections.incrementAndGet();
+        int closeAfter = settings.getCloseAfterRejections();
+        if (closeAfter > 0 && streak >= closeAfter) {
+            return Decision.VIOLATION;
+        }
+        return streak == 1 ? Decision.REJECTED_NOTIFY : Decision.REJECTED;
+    }
+
+    public void unregister(WebSocketSession session) {
+        SessionLimits limits = sessions.remove(session.getId());
+        if (limits != null && limits.userName != null) {
+            users.computeIfPresent(limits.userName, (name, user) -> --user.sessions == 0 ? null : user);
+        }
+    }
+
+    // 권한 목록 순서대로 보고 처음으로 설정이 있는 권한의 한도를 쓴다.
+    private Map<String, WebSocketProperties.RateLimit.Limit> limitsFor(Authentication authentication) {
+        if (authentication != null) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                Map<String, WebSocketProperties.RateLimit.Limit> limits = settings.getAuthorities().get(authority.getAuthority());
+                if (limits != null) {
+                    return limits;
+                }
+            }
+        }
+        return Map.of();
+    }
+
+    private static TokenBucket bucket(WebSocketProperties.RateLimit.Limit limit) {
+        return new TokenBucket(limit.getBurst(), limit.getPerSecond());
+    }
+
+    // ping / pong 같은 제어 메시지는 제한하지 않는다.
+    private static int typeOf(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage) {
+            return 0;
+        }
+        if (message instanceof BinaryMessage) {
+            return 1;
+        }
+        return NOT_LIMITED;
+    }
+
+    // rejections : 마지막 허용 이후 연속 거절 수
+    private record SessionLimits(TokenBucket[] buckets, String userName, UserLimit user, AtomicInteger rejections) {
+    }
+
+    // sessions는 users.compute 안에서만 바꾸고 읽는다.
+    private static final class UserLimit {
+        private final TokenBucket bucket;
+        private int sessions;
+
+        private UserLimit(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.springboot.websocket.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.websocket.dto.WebSocketMessages;
+import com.springboot.websocket.settings.WebSocketProperties;
+import com.springboot.websocket.utils.BinaryMessageCodec;
+import com.springboot.websocket.utils.PayloadCompressor;
+import com.springboot.websocket.utils.WebSocketMessageConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WebSocketBroadcasterTest {
+    private static final long TIMEOUT_MILLIS = 2000;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private WebSocketBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        WebSocketProperties properties = new WebSocketProperties();
+        properties.getBroadcast().setThreads(2);
+        properties.getBroadcast().setChunkSize(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new WebSocketBroadcaster(
+            properties,
+            new WebSocketMessageConverter(OBJECT_MAPPER),
+            new PayloadCompressor(properties, meterRegistry),
+            meterRegistry
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void broadcastReachesEveryRegisteredSessionWithOneSharedJsonMessage() throws Exception {
+        WebSocketSession[] sessions = new WebSocketSession[5];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = session("s" + i, null, false);
+            broadcaster.register(sessions[i]);
+        }
+
+        broadcaster.broadcast(message("hello"));
+
+        TextMessage first = null;
+        for (WebSocketSession session : sessions) {
+            ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+            verify(session, timeout(TIMEOUT_MILLIS)).sendMessage(sent.capture());
+            TextMessage text = assertInstanceOf(TextMessage.class, sent.getValue());
+            if (first == null) {
+                first = text;
+            }
+            // JSON은 브로드캐스트 하나당 한 번만 만든다.
+            assertSame(first, text);
+        }
+    }
+
+    @Test
+    void broadcastUsesEachSessionsNegotiatedFormat() throws Exception {
+        WebSocketSession json = session("json", null, false);
+        WebSocketSession binary = session("binary", WebSocketMessageConverter.BINARY_PROTOCOL, false);
+        WebSocketSession compressed = session("compressed", null, true);
+        broadcaster.register(json);
+        broadcaster.register(binary);
+        broadcaster.register(compressed);
+
+        // min-size(1024) 이상이어야 압축한다.
+        broadcaster.broadcast(message("x".repeat(4096)));
+
+        assertInstanceOf(TextMessage.class, sentTo(json));
+        BinaryMessage binaryFrame = assertInstanceOf(BinaryMessage.class, sentTo(binary));
+        assertEquals(BinaryMessageCodec.MAGIC, binaryFrame.getPayload().get(0));
+        BinaryMessage compressedFrame = assertInstanceOf(BinaryMessage.class, sentTo(compressed));
+        assertEquals(PayloadCompressor.DEFLATE_FRAME, compressedFrame.getPayload().get(0));
+    }
+
+    @Test
+    void closedSessionsAreSkipped() throws Exception {
+        WebSocketSession open = session("open", null, false);
+        WebSocketSession closed = session("closed", null, false);
+        when(closed.isOpen()).thenReturn(false);
+        broadcaster.register(open);
+        broadcaster.register(closed);
+
+        broadcaster.broadcast(message("hello"));
+
+        verify(open, timeout(TIMEOUT_MILLIS)).sendMessage(any());
+        verify(closed, after(200).never()).sendMessage(any());
+    }
+
+    @Test
+    void sequentialBroadcastsArriveInOrderOnEverySession() throws Exception {
+        int broadcasts = 50;
+        List<List<String>> received = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            List<String> data = Collections.synchronizedList(new ArrayList<>());
+            WebSocketSession session = session("s" + i, null, false);
+            doAnswer(invocation -> {
+                TextMessage text = invocation.getArgument(0);
+                JsonNode json = OBJECT_MAPPER.readTree(text.getPayload());
+                data.add(json.get("data").asText());
+                return null;
+            }).when(session).sendMessage(any());
+            broadcaster.register(session);
+            received.add(data);
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < broadcasts; i++) {
+            expected.add(String.valueOf(i));
+            broadcaster.broadcast(message(String.valueOf(i)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        for (List<String> data : received) {
+            while (data.size() < broadcasts && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            synchronized (data) {
+                assertEquals(expected, data);
+            }
+        }
+    }
+
+    private static WebSocketMessage<?> sentTo(WebSocketSession session) throws Exception {
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, timeout(TIMEOUT_MILLIS)).sendMessage(sent.capture());
+        return sent.getValue();
+    }
+
+    private static WebSocketSession session(String id, String protocol, boolean compression) {
+        Map<String, Object> attributes = new HashMap<>();
+        if (compression) {
+            attributes.put(PayloadCompressor.COMPRESSION_ATTRIBUTE, Boolean.TRUE);
+        }
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAcceptedProtocol()).thenReturn(protocol);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+
+    private static WebSocketMessages message(String data) {
+        return WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.BROADCAST)
+            .code("BROADCAST")
+            .data(data)
+            .build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.springboot.websocket.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.springboot.websocket.dto.MessageCode;
+import com.springboot.websocket.dto.WebSocketMessages;
+import com.springboot.websocket.exception.MessageConversionException;
+
+class BinaryMessageCodecTest {
+
+    @Test
+    void roundTripsNonBmpText() {
+        WebSocketMessages message = WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .code("CUSTOM_CODE")
+            .message("안녕하세요 😀")
+            .data("데이터 𝄞 é")
+            .channel("채널-🚀")
+            .sessionId("세션")
+            .build();
+
+        byte[] frame = BinaryMessageCodec.encode(message);
+        WebSocketMessages decoded = BinaryMessageCodec.decode(ByteBuffer.wrap(frame));
+
+        assertEquals(WebSocketMessages.MessageType.TEXT, decoded.getType());
+        assertEquals("CUSTOM_CODE", decoded.getCode());
+        assertEquals("안녕하세요 😀", decoded.getMessage());
+        assertEquals("데이터 𝄞 é", decoded.getData());
+        assertEquals("채널-🚀", decoded.getChannel());
+        assertEquals("세션", decoded.getSessionId());
+    }
+
+    @Test
+    void encodedFieldsMatchStringGetBytes() {
+        String data = "a é 한 😀";
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .code(MessageCode.JSON_RECEIVED.name())
+            .data(data)
+            .build());
+
+        byte[] expected = data.getBytes(StandardCharsets.UTF_8);
+        // [MAGIC][type][code id][data 길이 + 1][data...]
+        assertEquals(expected.length + 1, frame[3]);
+        assertArrayEquals(expected, Arrays.copyOfRange(frame, 4, 4 + expected.length));
+    }
+
+    @Test
+    void unpairedSurrogateIsEncodedAsQuestionMark() {
+        String broken = "a\uD83Db\uDE00";
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .data(broken)
+            .build());
+
+        WebSocketMessages decoded = BinaryMessageCodec.decode(ByteBuffer.wrap(frame));
+        assertEquals(new String(broken.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), decoded.getData());
+        assertEquals("a?b?", decoded.getData());
+    }
+
+    @Test
+    void nullFieldsStayNull() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.ACK)
+            .build());
+
+        WebSocketMessages decoded = BinaryMessageCodec.decode(ByteBuffer.wrap(frame));
+        assertEquals(WebSocketMessages.MessageType.ACK, decoded.getType());
+        assertNull(decoded.getCode());
+        assertNull(decoded.getMessage());
+        assertNull(decoded.getData());
+        assertNull(decoded.getChannel());
+        assertNull(decoded.getSessionId());
+    }
+
+    @Test
+    void emptyStringIsNotNull() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .data("")
+            .build());
+
+        assertEquals("", BinaryMessageCodec.decode(ByteBuffer.wrap(frame)).getData());
+    }
+
+    @Test
+    void knownCodeIsSentAsIdWithoutMessage() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.ERROR)
+            .code(MessageCode.RATE_LIMITED.name())
+            .message("Too many messages")
+            .build());
+
+        assertEquals(MessageCode.RATE_LIMITED.getId(), frame[2]);
+        WebSocketMessages decoded = BinaryMessageCodec.decode(ByteBuffer.wrap(frame));
+        assertEquals(MessageCode.RATE_LIMITED.name(), decoded.getCode());
+        assertNull(decoded.getMessage());
+    }
+
+    @Test
+    void unknownCodeIsSentAsText() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.ERROR)
+            .code("NOT_IN_LIST")
+            .message("custom")
+            .build());
+
+        assertEquals(MessageCode.UNKNOWN_ID, frame[2]);
+        WebSocketMessages decoded = BinaryMessageCodec.decode(ByteBuffer.wrap(frame));
+        assertEquals("NOT_IN_LIST", decoded.getCode());
+        assertEquals("custom", decoded.getMessage());
+    }
+
+    @Test
+    void rejectsUnknownCodeIdAndType() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .code(MessageCode.JSON_RECEIVED.name())
+            .build());
+
+        byte[] unknownCode = frame.clone();
+        unknownCode[2] = (byte) 250;
+        assertThrows(MessageConversionException.class, () -> BinaryMessageCodec.decode(ByteBuffer.wrap(unknownCode)));
+
+        byte[] unknownType = frame.clone();
+        unknownType[1] = (byte) WebSocketMessages.MessageType.values().length;
+        assertThrows(MessageConversionException.class, () -> BinaryMessageCodec.decode(ByteBuffer.wrap(unknownType)));
+    }
+
+    @Test
+    void rejectsTruncatedFrames() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .code("CUSTOM_CODE")
+            .message("메시지")
+            .data("😀 data")
+            .channel("room")
+            .sessionId("s-1")
+            .build());
+
+        for (int length = 0; length < frame.length; length++) {
+            byte[] truncated = Arrays.copyOf(frame, length);
+            assertThrows(MessageConversionException.class,
+                () -> BinaryMessageCodec.decode(ByteBuffer.wrap(truncated)), "length " + length);
+        }
+    }
+
+    @Test
+    void rejectsFieldLengthBeyondFrame() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .code(MessageCode.JSON_RECEIVED.name())
+            .data("abc")
+            .build());
+
+        frame[3] = 100;
+        assertThrows(MessageConversionException.class, () -> BinaryMessageCodec.decode(ByteBuffer.wrap(frame)));
+    }
+
+    @Test
+    void rejectsWrongMagic() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .build());
+        frame[0] = (byte) 0xDF;
+
+        assertFalse(BinaryMessageCodec.isBinaryFrame(ByteBuffer.wrap(frame)));
+        assertThrows(MessageConversionException.class, () -> BinaryMessageCodec.decode(ByteBuffer.wrap(frame)));
+    }
+
+    @Test
+    void decodesFromBufferPositionWithoutMovingIt() {
+        byte[] frame = BinaryMessageCodec.encode(WebSocketMessages.builder()
+            .type(WebSocketMessages.MessageType.TEXT)
+            .data("한글 😀")
+            .build());
+
+        ByteBuffer heap = ByteBuffer.allocate(frame.length + 2);
+        heap.put(new byte[] {1, 2}).put(frame).position(2);
+        assertTrue(BinaryMessageCodec.isBinaryFrame(heap));
+        assertEquals("한글 😀", BinaryMessageCodec.decode(heap).getData());
+        assertEquals(2, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(frame.length);
+        direct.put(frame).flip();
+        assertEquals("한글 😀", BinaryMessageCodec.decode(direct).getData());
+        assertEquals(0, direct.position());
+        assertEquals(frame.length, direct.limit());
+    }
+}
@@ -0,0 +1,103 @@
+package com.springboot.websocket.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    void allowsBurstThenRejects() {
+        TokenBucket bucket = new TokenBucket(3, 1);
+
+        assertTrue(bucket.tryAcquire(START));
+        assertTrue(bucket.tryAcquire(START));
+        assertTrue(bucket.tryAcquire(START));
+        assertFalse(bucket.tryAcquire(START));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(3, 2);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bucket.tryAcquire(START));
+        }
+
+        // 초당 2개 -> 0.5초마다 한 개
+        assertFalse(bucket.tryAcquire(START + SECOND / 2 - 1));
+        assertTrue(bucket.tryAcquire(START + SECOND / 2));
+        assertFalse(bucket.tryAcquire(START + SECOND / 2));
+        assertTrue(bucket.tryAcquire(START + SECOND));
+        assertFalse(bucket.tryAcquire(START + SECOND));
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateBeyondBurst() {
+        TokenBucket bucket = new TokenBucket(2, 10);
+        assertTrue(bucket.tryAcquire(START));
+
+        long later = START + 60 * SECOND;
+        assertTrue(bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    void rejectedCallsDoNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        assertTrue(bucket.tryAcquire(START));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(bucket.tryAcquire(START));
+        }
+        assertTrue(bucket.tryAcquire(START + SECOND));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws InterruptedException {
+        int burst = 50;
+        TokenBucket bucket = new TokenBucket(burst, 1);
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        if (bucket.tryAcquire(START)) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(burst, acquired.get());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}